@@ -0,0 +1,70 @@
+package com.tambo.tambo_delivery_backend.auth.helper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tambo.tambo_delivery_backend.auth.entities.Authority;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+
+// Coste por petición de verificar el token: como antes (clave y parser nuevos en cada llamada),
+// con el parser compartido y con la caché de claims de JWTTokenHelper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTParseBenchmark {
+
+    private static final String SECRET = "RXN0YUVzTWlDbGF2ZVNlY3JldGFTdXBlclNlZ3VyYUNvbk1hc0RlMzJDYXJhY3RlcmVzISE=";
+
+    private JWTTokenHelper helper;
+    private JwtParser sharedParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        helper = new JWTTokenHelper("authapp", SECRET, 3600, 100);
+        sharedParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build();
+        token = helper.generateToken(User.builder()
+                .email("ana@tambo.test")
+                .authorities(List.of(Authority.builder().roleCode("USER").roleDescription("User").build()))
+                .build());
+    }
+
+    @Benchmark
+    public Claims parserPerRequest() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return sharedParser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return helper.parseToken(token);
+    }
+}
@@ -2,11 +2,19 @@ package com.tambo.tambo_delivery_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TamboDeliveryBackendApplication {
 
 	public static void main(String[] args) {
+		// Conexiones keep-alive que HttpURLConnection (cliente de PayPal) mantiene por destino;
+		// debe fijarse antes de la primera conexión HTTP de la JVM. Mismo valor que
+		// paypal.max-concurrent-calls; -Dhttp.maxConnections tiene prioridad
+		if (System.getProperty("http.maxConnections") == null) {
+			System.setProperty("http.maxConnections", "20");
+		}
 		SpringApplication.run(TamboDeliveryBackendApplication.class, args);
 	}
 
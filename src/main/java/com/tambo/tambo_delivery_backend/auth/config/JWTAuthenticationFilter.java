@@ -1,29 +1,35 @@
 package com.tambo.tambo_delivery_backend.auth.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
+import com.tambo.tambo_delivery_backend.auth.services.TokenRevocationService;
+import com.tambo.tambo_delivery_backend.auth.services.TokenVersionService;
 
 import java.io.IOException;
 
 //  Interceptar las solicitudes HTTP y validar los tokens JWT para autenticar usuarios.
+//  La autenticación se arma solo con los claims (email y roles); la base de datos no se consulta,
+//  salvo para refrescar de vez en cuando la versión de tokens del usuario (revocación).
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
-    private final UserDetailsService userDetailsService; // cargar los detalles del usuario desde la base de datos
     private final JWTTokenHelper jwtTokenHelper; // Utilidad para trabajar con tokens JWT
+    private final TokenVersionService tokenVersionService; // Tokens revocados y usuarios deshabilitados
+    private final TokenRevocationService tokenRevocationService; // Tokens cerrados con logout
 
-    public JWTAuthenticationFilter(JWTTokenHelper jwtTokenHelper, UserDetailsService userDetailsService) {
+    public JWTAuthenticationFilter(JWTTokenHelper jwtTokenHelper, TokenVersionService tokenVersionService,
+            TokenRevocationService tokenRevocationService) {
         this.jwtTokenHelper = jwtTokenHelper;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionService = tokenVersionService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -39,31 +45,22 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            String authToken = jwtTokenHelper.getToken(request); // Extrae el token
-            if (null != authToken) {
-                String userName = jwtTokenHelper.getUserNameFromToken(authToken); // Obtiene el nombre de usuario del
-                                                                                  // token
-                if (null != userName) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(userName); // Carga los detalles del
-                                                                                               // usuario
-
-                    // Valida el token contra los detalles del usuario
-                    if (jwtTokenHelper.validateToken(authToken, userDetails)) {
-                        // Crea y establece la autenticación en el contexto de seguridad
-                        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authenticationToken.setDetails(new WebAuthenticationDetails(request));
-
-                        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                    }
-                }
+        // Firma y expiración se verifican una sola vez
+        Claims claims = jwtTokenHelper.parseToken(jwtTokenHelper.getToken(request));
+        if (null != claims && null != claims.getSubject()) {
+            // Los tokens sin versión (emitidos antes de los roles en claims) no se aceptan
+            Integer version = claims.get(JWTTokenHelper.VERSION_CLAIM, Integer.class);
+            if (null != version && !tokenRevocationService.isRevoked(claims.getId())
+                    && tokenVersionService.isCurrent(claims.getSubject(), version)) {
+                // Crea y establece la autenticación en el contexto de seguridad; getName() es el email
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        claims.getSubject(), null, jwtTokenHelper.getAuthorities(claims));
+                authenticationToken.setDetails(new WebAuthenticationDetails(request));
 
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
-            // pasa la solicitud al siguiente filtro
-            filterChain.doFilter(request, response);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+        // pasa la solicitud al siguiente filtro
+        filterChain.doFilter(request, response);
     }
 }
@@ -1,6 +1,9 @@
 package com.tambo.tambo_delivery_backend.auth.config;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,9 +13,8 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -20,7 +22,11 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.tambo.tambo_delivery_backend.auth.exceptions.RESTAuthenticationEntryPoint;
+import com.tambo.tambo_delivery_backend.auth.helper.BoundedPasswordEncoder;
 import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
+import com.tambo.tambo_delivery_backend.auth.services.CustomUserDetailService;
+import com.tambo.tambo_delivery_backend.auth.services.TokenRevocationService;
+import com.tambo.tambo_delivery_backend.auth.services.TokenVersionService;
 
 // Configuración de seguridad de la aplicación Spring Boot que combina autenticación JWT y OAuth2
 @Configuration // Indica que esta clase contiene configuraciones de Spring
@@ -28,14 +34,33 @@ import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
 public class WebSecurityConfig {
 
         @Autowired
-        private UserDetailsService userDetailsService;
+        private CustomUserDetailService userDetailService;
 
         @Autowired
         private JWTTokenHelper jwtTokenHelper;
 
+        @Autowired
+        private TokenVersionService tokenVersionService;
+
+        @Autowired
+        private TokenRevocationService tokenRevocationService;
+
         @Autowired
         private RESTAuthenticationEntryPoint restAuthenticationEntryPoint;
 
+        // Coste de BCrypt y pool de hashing (threads=0: la mitad de los núcleos)
+        @Value("${auth.password-hashing.bcrypt-strength:10}")
+        private int bcryptStrength;
+
+        @Value("${auth.password-hashing.threads:0}")
+        private int hashingThreads;
+
+        @Value("${auth.password-hashing.queue-capacity:32}")
+        private int hashingQueueCapacity;
+
+        @Value("${auth.password-hashing.timeout-ms:3000}")
+        private long hashingTimeoutMs;
+
         // Configuración del filtro de seguridad
         @Bean
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -56,7 +81,8 @@ public class WebSecurityConfig {
                                 .oauth2Login((oauth2login) -> oauth2login
                                                 .defaultSuccessUrl("/oauth2/success")
                                                 .loginPage("/oauth2/authorization/google"))
-                                .addFilterBefore(new JWTAuthenticationFilter(jwtTokenHelper, userDetailsService),
+                                .addFilterBefore(new JWTAuthenticationFilter(jwtTokenHelper, tokenVersionService,
+                                                tokenRevocationService),
                                                 UsernamePasswordAuthenticationFilter.class);
                 return http.build();
         }
@@ -65,20 +91,28 @@ public class WebSecurityConfig {
         // No necesitamos WebSecurityCustomizer ya que SecurityFilterChain maneja todo
 
         // Configura el proveedor de autenticación con:
-        // UserDetailsService (para cargar usuarios)
+        // UserDetailsService (para cargar usuarios; sin caché, la contraseña debe estar al día)
         // PasswordEncoder (para verificar contraseñas)
+        // UserDetailsPasswordService (vuelve a codificar la contraseña si cambió el coste de BCrypt)
         @Bean
         public AuthenticationManager authenticationManager() {
                 DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
-                daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+                daoAuthenticationProvider.setUserDetailsService(userDetailService::loadFreshUser);
                 daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+                daoAuthenticationProvider.setUserDetailsPasswordService(userDetailService);
                 return new ProviderManager(daoAuthenticationProvider);
         }
 
-        // Provee un encoder de contraseñas moderno y flexible
+        // Provee un encoder de contraseñas ({bcrypt}, como los hashes ya guardados) que calcula los
+        // hashes en un pool acotado, fuera de los hilos de Tomcat
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        public BoundedPasswordEncoder passwordEncoder() {
+                DelegatingPasswordEncoder delegate = new DelegatingPasswordEncoder("bcrypt",
+                                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+                int threads = hashingThreads > 0 ? hashingThreads
+                                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                return new BoundedPasswordEncoder(delegate, bcryptStrength, threads, hashingQueueCapacity,
+                                hashingTimeoutMs);
         }
 
         // Configuración de CORS para permitir solicitudes desde el frontend
@@ -5,10 +5,15 @@ import com.tambo.tambo_delivery_backend.auth.dto.request.RegistrationRequest;
 import com.tambo.tambo_delivery_backend.auth.dto.response.LoginResponse;
 import com.tambo.tambo_delivery_backend.auth.dto.response.UserResponseDto;
 import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
 import com.tambo.tambo_delivery_backend.auth.services.LoginService;
+import com.tambo.tambo_delivery_backend.auth.services.RefreshTokenService;
+import com.tambo.tambo_delivery_backend.auth.services.TokenRevocationService;
 import com.tambo.tambo_delivery_backend.auth.services.UserService;
 import com.tambo.tambo_delivery_backend.auth.services.ResetPasswordService;
 
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +41,15 @@ public class AuthController {
     @Autowired
     ResetPasswordService resetPasswordService;
 
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    JWTTokenHelper jwtTokenHelper;
+
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> login(@RequestBody @Valid LoginRequest request) {
         LoginResponse loginResponse = loginService.loginUser(request);
@@ -88,4 +102,34 @@ public class AuthController {
         return resetPasswordService.resetPassword(token, newPassword);
     }
 
+    // Renueva el access token; el refresh token enviado deja de valer y se devuelve uno nuevo
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@RequestBody Map<String, String> body) {
+        return refreshTokenService.rotate(body.get("refreshToken"))
+                .map(tokens -> ResponseEntity.ok(LoginResponse.builder()
+                        .code(200)
+                        .message("Sesión renovada.")
+                        .token(tokens.accessToken())
+                        .refreshToken(tokens.refreshToken())
+                        .build()))
+                .orElseGet(() -> new ResponseEntity<>(LoginResponse.builder()
+                        .code(401)
+                        .message("La sesión expiró. Inicie sesión nuevamente.")
+                        .build(), HttpStatus.UNAUTHORIZED));
+    }
+
+    // Cierra la sesión: revoca el refresh token y el access token actual (si se envía)
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) Map<String, String> body,
+            HttpServletRequest request) {
+        if (body != null) {
+            refreshTokenService.revoke(body.get("refreshToken"));
+        }
+        Claims claims = jwtTokenHelper.parseToken(jwtTokenHelper.getToken(request));
+        if (claims != null) {
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
 }
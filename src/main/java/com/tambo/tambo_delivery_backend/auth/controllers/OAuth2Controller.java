@@ -1,8 +1,8 @@
 package com.tambo.tambo_delivery_backend.auth.controllers;
 
 import com.tambo.tambo_delivery_backend.auth.entities.User;
-import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
 import com.tambo.tambo_delivery_backend.auth.services.OAuth2Service;
+import com.tambo.tambo_delivery_backend.auth.services.RefreshTokenService;
 
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +25,7 @@ public class OAuth2Controller {
     OAuth2Service oAuth2Service;
 
     @Autowired
-    private JWTTokenHelper jwtTokenHelper;
+    private RefreshTokenService refreshTokenService;
 
     @GetMapping("/success")
     public void callbackOAuth2(@AuthenticationPrincipal OAuth2User oAuth2User, HttpServletResponse response)
@@ -40,12 +40,14 @@ public class OAuth2Controller {
             user = oAuth2Service.createUser(oAuth2User, "google");
         }
 
-        // Genera un token JWT usando JWTTokenHelper
-        String token = jwtTokenHelper.generateToken(user.getUsername());
+        // Genera el access token JWT y el refresh token de la sesión
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
 
-        // Redirige al frontend (React en localhost:4200) con el
-        // token como parámetro de consulta.
-        response.sendRedirect("http://localhost:4200/oauth2/callback?token=" + token);
+        // Redirige al frontend (React en localhost:4200) con el access token como parámetro de
+        // consulta. El refresh token va en el fragmento (#): el navegador no lo envía al servidor
+        // ni en el Referer, así que no queda en logs de acceso ni de proxies.
+        response.sendRedirect("http://localhost:4200/oauth2/callback?token=" + tokens.accessToken()
+                + "#refreshToken=" + tokens.refreshToken());
 
     }
 }
@@ -14,4 +14,6 @@ public class LoginResponse {
     private int code;
     private String message;
     private String token;
+    // De un solo uso: POST /api/auth/refresh devuelve uno nuevo junto con el access token
+    private String refreshToken;
 }
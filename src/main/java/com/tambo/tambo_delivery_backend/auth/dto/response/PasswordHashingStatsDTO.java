@@ -0,0 +1,33 @@
+package com.tambo.tambo_delivery_backend.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordHashingStatsDTO {
+    private int bcryptStrength;
+    // Hilos del pool, hashes en curso y en espera
+    private int threads;
+    private int active;
+    private int queued;
+    private OperationStats encode;
+    private OperationStats matches;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationStats {
+        private long completed;
+        // Rechazadas con 503 por cola llena o por superar el tiempo de espera
+        private long rejected;
+        // Desde que la petición entra en la cola hasta que tiene el resultado
+        private double avgMillis;
+        private double maxMillis;
+    }
+}
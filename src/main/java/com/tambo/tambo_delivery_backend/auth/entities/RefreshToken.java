@@ -0,0 +1,51 @@
+package com.tambo.tambo_delivery_backend.auth.entities;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Refresh token opaco ("<id>.<secreto>"); solo se guarda el hash del secreto. Cada uso lo reemplaza por
+// uno nuevo de la misma familia; presentar uno ya reemplazado revoca la familia entera (robo del token)
+@Entity
+@Table(name = "AUTH_REFRESH_TOKEN", indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    // SHA-256 del secreto, en hexadecimal
+    @Column(nullable = false, length = 64)
+    private String secretHash;
+
+    // User.tokenVersion al emitirlo: al revocar los tokens del usuario deja de servir
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private Instant revokedAt;
+
+    // Token que lo reemplazó al rotar
+    private UUID replacedBy;
+}
@@ -0,0 +1,25 @@
+package com.tambo.tambo_delivery_backend.auth.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Access token (jti) revocado antes de expirar, por ejemplo al cerrar sesión. Se borra al expirar
+@Entity
+@Table(name = "AUTH_REVOKED_TOKEN", indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -73,6 +73,11 @@ public class User implements UserDetails {
     @Column(name = "last_password_reset_request")
     private Date lastPasswordResetRequest;
 
+    // Versión de los tokens emitidos; al incrementarla los JWT anteriores dejan de ser válidos
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private Date createdOn;
@@ -89,6 +94,11 @@ public class User implements UserDetails {
     @ToString.Exclude
     private List<Address> addressList;
 
+    // Invalida los tokens ya emitidos (cambio de contraseña o de roles)
+    public void revokeTokens() {
+        this.tokenVersion++;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,136 @@
+package com.tambo.tambo_delivery_backend.auth.helper;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.tambo.tambo_delivery_backend.auth.dto.response.PasswordHashingStatsDTO;
+import com.tambo.tambo_delivery_backend.exceptions.PasswordHashingBusyEx;
+
+// BCrypt fuera de los hilos de Tomcat: un pool propio de pocos hilos y una cola acotada. Con la cola
+// llena, o si el resultado tarda más que timeoutMs, se rechaza al momento (503) en lugar de dejar
+// que una ráfaga de logins ocupe toda la CPU y los hilos del servidor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public enum Operation {
+        ENCODE, MATCHES
+    }
+
+    private static final String BUSY_MESSAGE =
+            "Demasiadas solicitudes de inicio de sesión. Intente nuevamente en unos segundos.";
+
+    private final PasswordEncoder delegate;
+    private final int bcryptStrength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int bcryptStrength, int threads, int queueCapacity,
+            long timeoutMs) {
+        this.delegate = delegate;
+        this.bcryptStrength = bcryptStrength;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().daemon().name("password-hash-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(Operation.ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(Operation.MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Solo lee el prefijo del hash; si el coste configurado cambió, el login vuelve a codificar la contraseña
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStatsDTO getStats() {
+        return PasswordHashingStatsDTO.builder()
+                .bcryptStrength(bcryptStrength)
+                .threads(executor.getMaximumPoolSize())
+                .active(executor.getActiveCount())
+                .queued(executor.getQueue().size())
+                .encode(stats.get(Operation.ENCODE).snapshot())
+                .matches(stats.get(Operation.MATCHES).snapshot())
+                .build();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Operation operation, Callable<T> task) {
+        Stats operationStats = stats.get(operation);
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            operationStats.rejected.increment();
+            throw new PasswordHashingBusyEx(BUSY_MESSAGE);
+        }
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            operationStats.record(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            operationStats.rejected.increment();
+            throw new PasswordHashingBusyEx(BUSY_MESSAGE);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyEx("Solicitud interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Stats {
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            completed.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        PasswordHashingStatsDTO.OperationStats snapshot() {
+            long count = completed.sum();
+            return PasswordHashingStatsDTO.OperationStats.builder()
+                    .completed(count)
+                    .rejected(rejected.sum())
+                    .avgMillis(count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count)
+                    .maxMillis(maxNanos.get() / 1_000_000.0)
+                    .build();
+        }
+    }
+}
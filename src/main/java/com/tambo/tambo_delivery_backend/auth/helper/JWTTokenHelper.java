@@ -1,49 +1,79 @@
 package com.tambo.tambo_delivery_backend.auth.helper;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
 @Component
 public class JWTTokenHelper {
 
-    // Propiedades inyectadas
-    @Value("${jwt.auth.app}")
-    private String appName;
-
-    @Value("${jwt.auth.secret_key}")
-    private String secretKey;
-
-    @Value("${jwt.auth.expires_in}")
-    private int expiresIn;
+    // Claims propios: roles del usuario y versión de sus tokens (ver TokenVersionService)
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
+    private final String appName;
+    private final int expiresIn;
+    // Clave y parser se construyen una vez; el parser es inmutable y se comparte entre hilos
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    // Claims ya verificados, por hash del token (no se guarda el token). Un token no vive más de
+    // expires_in desde su emisión, así que la entrada caduca a la vez que él
+    private final Cache<String, Claims> claimsCache;
+
+    public JWTTokenHelper(@Value("${jwt.auth.app}") String appName,
+            @Value("${jwt.auth.secret_key}") String secretKey,
+            @Value("${jwt.auth.expires_in}") int expiresIn,
+            @Value("${jwt.auth.claims-cache-size:10000}") long claimsCacheSize) {
+        this.appName = appName;
+        this.expiresIn = expiresIn;
+        // Decodifica la clave secreta en Base64 y crea una clave HMAC-SHA para firmar
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.claimsCache = CacheBuilder.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfterWrite(expiresIn, TimeUnit.SECONDS)
+                .build();
+    }
 
-    // Generación de Tokens
-    public String generateToken(String userName) {
+    // Generación de Tokens: lleva los roles para autenticar sin cargar el usuario en cada petición
+    public String generateToken(User user) {
+        List<String> roles = user.getAuthorities() == null ? List.of()
+                : user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
         return Jwts.builder()
                 .issuer(appName)
-                .subject(userName)
+                .subject(user.getUsername())
+                // jti: permite revocar este token concreto (cierre de sesión)
+                .id(UUID.randomUUID().toString())
+                .claim(ROLES_CLAIM, roles)
+                .claim(VERSION_CLAIM, user.getTokenVersion())
                 .issuedAt(new Date())
                 .expiration(generateExpirationDate())
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    // Decodifica la clave secreta en Base64 y crea una clave HMAC-SHA para firmar
-    private Key getSigningKey() {
-        byte[] keysBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keysBytes);
-    }
-
     // Generar la fecha de espiración del token
     private Date generateExpirationDate() {
         return new Date(new Date().getTime() + expiresIn * 1000L);
@@ -60,32 +90,10 @@ public class JWTTokenHelper {
         return authHeader;
     }
 
-    // Verifica:
-
-    // Que el token contenga un nombre de usuario
-    // Que coincida con el usuario proporcionado
+    // Verifica que el token contenga el nombre de usuario proporcionado y que no esté expirado
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = getUserNameFromToken(token);
-        return (username != null &&
-                username.equals(userDetails.getUsername()) &&
-                !isTokenExpired(token));
-    }
-
-    // Que no esté expirado
-    private boolean isTokenExpired(String token) {
-        Date expireDate = getExpirationDate(token);
-        return expireDate.before(new Date());
-    }
-
-    private Date getExpirationDate(String token) {
-        Date expireDate;
-        try {
-            final Claims claims = this.getAllClaimsFromToken(token);
-            expireDate = claims.getExpiration();
-        } catch (Exception e) {
-            expireDate = null;
-        }
-        return expireDate;
+        return username != null && username.equals(userDetails.getUsername());
     }
 
     private String getAuthHeaderFromHeader(HttpServletRequest request) {
@@ -93,28 +101,42 @@ public class JWTTokenHelper {
     }
 
     public String getUserNameFromToken(String authToken) {
-        String username;
+        Claims claims = parseToken(authToken);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    // Verifica firma y expiración y devuelve los claims; null si el token no es válido.
+    // Un token ya verificado se resuelve desde la caché hasta su expiración
+    public Claims parseToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        String key = Hashing.sha256().hashString(token, StandardCharsets.US_ASCII).toString();
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            claimsCache.invalidate(key);
+            return null;
+        }
         try {
-            final Claims claims = this.getAllClaimsFromToken(authToken);
-            username = claims.getSubject();
-        } catch (Exception e) {
-            username = null;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            claimsCache.put(key, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
-        return username;
     }
 
-    // Extrae todos los claims (datos) del token usando la clave secreta
-    private Claims getAllClaimsFromToken(String token) {
-        Claims claims;
-        try {
-            claims = Jwts.parser()
-                    .verifyWith((SecretKey) getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (Exception e) {
-            throw new RuntimeException("Token inválido o mal formado", e);
+    // Roles del claim "roles"; vacío en tokens emitidos antes de incluirlos
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
         }
-        return claims;
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
     }
 }
@@ -0,0 +1,37 @@
+package com.tambo.tambo_delivery_backend.auth.repositories;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.auth.entities.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findWithUserById(UUID id);
+
+    // Marca el token como usado; 0 si otra petición ya lo había rotado o revocado. Se limpia el
+    // contexto para que nadie lea después la copia en memoria sin revocar
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.revokedAt = :now, t.replacedBy = :next where t.id = :id and t.revokedAt is null")
+    int markRotated(@Param("id") UUID id, @Param("next") UUID next, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken t set t.revokedAt = :now where t.familyId = :familyId and t.revokedAt is null")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
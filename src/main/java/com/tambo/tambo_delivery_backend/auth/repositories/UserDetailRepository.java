@@ -5,6 +5,8 @@ import com.tambo.tambo_delivery_backend.auth.entities.User;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,4 +15,8 @@ public interface UserDetailRepository extends JpaRepository<User, UUID> {
 
     User findByResetToken(String resetToken);
 
+    // Versión vigente de los tokens del usuario; null si no existe o está deshabilitado
+    @Query("select u.tokenVersion from User u where u.email = :email and u.enabled = true")
+    Integer findActiveTokenVersion(@Param("email") String email);
+
 }
@@ -4,6 +4,7 @@ import com.tambo.tambo_delivery_backend.auth.entities.Authority;
 import com.tambo.tambo_delivery_backend.auth.repositories.AuthorityRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -16,6 +17,9 @@ public class AuthorityService {
     @Autowired
     private AuthorityRepository authorityRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Proporciona la autoridad básica para usuarios normales
     public List<Authority> getUserAuthority() {
         List<Authority> authorities = new ArrayList<>();
@@ -56,6 +60,8 @@ public class AuthorityService {
             role.setRoleCode(roleCode);
             role.setRoleDescription(description);
             authorityRepository.save(role);
+            // Los usuarios con este rol (y sus tokens) tienen el código anterior
+            eventPublisher.publishEvent(UserChangedEvent.allUsers());
             return role;
         } catch (RuntimeException e) {
             throw new RuntimeException("Error al actualizar el rol", e);
@@ -66,6 +72,7 @@ public class AuthorityService {
 
         try {
             authorityRepository.deleteById(id);
+            eventPublisher.publishEvent(UserChangedEvent.allUsers());
         } catch (RuntimeException e) {
             throw new RuntimeException("Error al eliminar el rol", e);
         }
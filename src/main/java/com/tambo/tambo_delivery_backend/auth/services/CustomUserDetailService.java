@@ -1,22 +1,66 @@
 package com.tambo.tambo_delivery_backend.auth.services;
 
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tambo.tambo_delivery_backend.auth.entities.User;
 import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 // implementa UserDetailsService para cargar usuarios por nombre de usuario (en este caso, email)
+// Los usuarios se guardan en memoria unos segundos y se invalidan con UserChangedEvent; dentro de una
+// petición HTTP se devuelve siempre la misma instancia. El login usa loadFreshUser (contraseña al día)
 @Service
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String REQUEST_ATTRIBUTE = CustomUserDetailService.class.getName() + ".user.";
 
-    @Autowired
-    private UserDetailRepository userDetailRepository;
+    private final UserDetailRepository userDetailRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, User> users;
+
+    public CustomUserDetailService(UserDetailRepository userDetailRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${auth.user-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${auth.user-cache.max-size:10000}") long maxSize) {
+        this.userDetailRepository = userDetailRepository;
+        this.eventPublisher = eventPublisher;
+        this.users = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        String attribute = REQUEST_ATTRIBUTE + username;
+        if (request != null && request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) instanceof User memo) {
+            return memo;
+        }
+        User user = users.getIfPresent(username);
+        if (null == user) {
+            user = loadFreshUser(username);
+            users.put(username, user);
+        }
+        if (request != null) {
+            request.setAttribute(attribute, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    // Lectura directa de la base de datos, sin caché
+    public User loadFreshUser(String username) throws UsernameNotFoundException {
         // Busca usuario por email
         User user = userDetailRepository.findByEmail(username);
         // Si no existe, lanza UsernameNotFoundException
@@ -25,4 +69,24 @@ public class CustomUserDetailService implements UserDetailsService {
         }
         return user;
     }
+
+    // Login correcto con un hash de coste distinto al configurado: se guarda el hash nuevo.
+    // La contraseña no cambia, así que los tokens emitidos siguen valiendo
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User stored = loadFreshUser(user.getUsername());
+        stored.setPassword(newPassword);
+        User saved = userDetailRepository.save(stored);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getEmail()));
+        return saved;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.email() == null) {
+            users.invalidateAll();
+        } else {
+            users.invalidate(event.email());
+        }
+    }
 }
@@ -111,72 +111,60 @@ public class EmailService {
         }
     }
 
-    // envía la boleta como PDF adjunto
-    public String sendBoletaEmail(Order order, byte[] pdfBytes) {
-        try {
-            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "utf-8");
+    // envía la boleta como PDF adjunto; los errores se propagan para que ReceiptDispatcher reintente
+    public void sendBoletaEmail(Order order, byte[] pdfBytes) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "utf-8");
 
-            try {
-                helper.setFrom(sender, "Tambo Delivery");
-            } catch (UnsupportedEncodingException e) {
-                e.printStackTrace();
-                helper.setFrom(sender); // fallback sin nombre
-            }
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("Gracias por tu compra - Boleta Adjunta");
+        try {
+            helper.setFrom(sender, "Tambo Delivery");
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+            helper.setFrom(sender); // fallback sin nombre
+        }
+        helper.setTo(order.getUser().getEmail());
+        helper.setSubject("Gracias por tu compra - Boleta Adjunta");
 
-            String text = "Hola " + order.getUser().getUsername() + ",<br><br>"
-                    + "Gracias por tu compra en Tambo Delivery. Adjuntamos tu boleta de compra en formato PDF.<br><br>"
-                    + "Total pagado: <strong>S/ " + order.getTotalAmount() + "</strong><br>"
-                    + "Fecha: " + order.getOrderDate() + "<br><br>"
-                    + "Saludos cordiales,<br>Tambo Team";
+        String text = "Hola " + order.getUser().getUsername() + ",<br><br>"
+                + "Gracias por tu compra en Tambo Delivery. Adjuntamos tu boleta de compra en formato PDF.<br><br>"
+                + "Total pagado: <strong>S/ " + order.getTotalAmount() + "</strong><br>"
+                + "Fecha: " + order.getOrderDate() + "<br><br>"
+                + "Saludos cordiales,<br>Tambo Team";
 
-            helper.setText(text, true); // true para HTML
+        helper.setText(text, true); // true para HTML
 
-            // Adjuntar PDF como archivo binario
-            helper.addAttachment("Boleta_Tambo.pdf", new ByteArrayResource(pdfBytes));
+        // Adjuntar PDF como archivo binario
+        helper.addAttachment("Boleta_Tambo.pdf", new ByteArrayResource(pdfBytes));
 
-            javaMailSender.send(mimeMessage);
-            return "Boleta enviada correctamente";
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            return "Error al enviar la boleta: " + e.getMessage();
-        }
+        javaMailSender.send(mimeMessage);
     }
 
-    // envía la factura como PDF adjunto
-    public String sendFacturaEmail(Order order, byte[] pdfBytes) {
-        try {
-            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "utf-8");
+    // envía la factura como PDF adjunto; los errores se propagan para que ReceiptDispatcher reintente
+    public void sendFacturaEmail(Order order, byte[] pdfBytes) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "utf-8");
 
-            try {
-                helper.setFrom(sender, "Tambo Delivery");
-            } catch (UnsupportedEncodingException e) {
-                e.printStackTrace();
-                helper.setFrom(sender); // fallback sin nombre
-            }
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("Gracias por tu compra - Factura Adjunta");
+        try {
+            helper.setFrom(sender, "Tambo Delivery");
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+            helper.setFrom(sender); // fallback sin nombre
+        }
+        helper.setTo(order.getUser().getEmail());
+        helper.setSubject("Gracias por tu compra - Factura Adjunta");
 
-            String text = "Hola " + order.getUser().getUsername() + ",<br><br>"
-                    + "Gracias por tu compra en Tambo Delivery. Adjuntamos tu factura de compra en formato PDF.<br><br>"
-                    + "Total pagado: <strong>S/ " + order.getTotalAmount() + "</strong><br>"
-                    + "Fecha: " + order.getOrderDate() + "<br><br>"
-                    + "Saludos cordiales,<br>Tambo Team";
+        String text = "Hola " + order.getUser().getUsername() + ",<br><br>"
+                + "Gracias por tu compra en Tambo Delivery. Adjuntamos tu factura de compra en formato PDF.<br><br>"
+                + "Total pagado: <strong>S/ " + order.getTotalAmount() + "</strong><br>"
+                + "Fecha: " + order.getOrderDate() + "<br><br>"
+                + "Saludos cordiales,<br>Tambo Team";
 
-            helper.setText(text, true); // true para HTML
+        helper.setText(text, true); // true para HTML
 
-            // Adjuntar PDF como archivo binario
-            helper.addAttachment("Factura_Tambo.pdf", new ByteArrayResource(pdfBytes));
+        // Adjuntar PDF como archivo binario
+        helper.addAttachment("Factura_Tambo.pdf", new ByteArrayResource(pdfBytes));
 
-            javaMailSender.send(mimeMessage);
-            return "Factura enviada correctamente";
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            return "Error al enviar la factura: " + e.getMessage();
-        }
+        javaMailSender.send(mimeMessage);
     }
 
 }
\ No newline at end of file
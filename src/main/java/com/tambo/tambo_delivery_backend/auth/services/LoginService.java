@@ -12,8 +12,8 @@ import org.springframework.web.server.ServerErrorException;
 import com.tambo.tambo_delivery_backend.auth.dto.request.LoginRequest;
 import com.tambo.tambo_delivery_backend.auth.dto.response.LoginResponse;
 import com.tambo.tambo_delivery_backend.auth.entities.User;
-import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
 import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+import com.tambo.tambo_delivery_backend.exceptions.PasswordHashingBusyEx;
 
 @Service
 public class LoginService {
@@ -25,7 +25,7 @@ public class LoginService {
     UserDetailRepository userDetailRepository;
 
     @Autowired
-    JWTTokenHelper jwtTokenHelper;
+    RefreshTokenService refreshTokenService;
 
     public LoginResponse loginUser(LoginRequest request) {
 
@@ -46,11 +46,12 @@ public class LoginService {
                         .build();
             }
 
-            String token = jwtTokenHelper.generateToken(user.getEmail());
+            RefreshTokenService.IssuedTokens tokens = refreshTokenService.issue(user);
             return LoginResponse.builder()
                     .code(200)
                     .message("Inicio de sesión exitoso.")
-                    .token(token)
+                    .token(tokens.accessToken())
+                    .refreshToken(tokens.refreshToken())
                     .build();
 
         } catch (DisabledException e) {
@@ -60,6 +61,10 @@ public class LoginService {
                     .token(null)
                     .build();
 
+        } catch (PasswordHashingBusyEx e) {
+            // Pool de hashing saturado: 503 en el controlador
+            throw e;
+
         } catch (BadCredentialsException e) {
             return LoginResponse.builder()
                     .code(401)
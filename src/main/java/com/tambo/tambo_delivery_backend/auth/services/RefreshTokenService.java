@@ -0,0 +1,142 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.google.common.hash.Hashing;
+import com.tambo.tambo_delivery_backend.auth.entities.RefreshToken;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
+import com.tambo.tambo_delivery_backend.auth.repositories.RefreshTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Sesiones: access token corto (JWT) + refresh token de un solo uso que se rota en cada renovación
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    public record IssuedTokens(String accessToken, String refreshToken) {
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JWTTokenHelper jwtTokenHelper;
+    private final long refreshExpiresIn;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JWTTokenHelper jwtTokenHelper,
+            @Value("${jwt.auth.refresh-expires-in:1209600}") long refreshExpiresIn) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtTokenHelper = jwtTokenHelper;
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
+    // Inicio de sesión: nueva familia de refresh tokens
+    @Transactional
+    public IssuedTokens issue(User user) {
+        return new IssuedTokens(jwtTokenHelper.generateToken(user), create(user, UUID.randomUUID(), UUID.randomUUID()));
+    }
+
+    // Cambia el refresh token por uno nuevo y un access token nuevo. Vacío si no es válido; si ya se
+    // había usado, alguien tiene una copia y se revoca toda la familia (el usuario vuelve a iniciar sesión)
+    @Transactional
+    public Optional<IssuedTokens> rotate(String refreshToken) {
+        Optional<RefreshToken> found = find(refreshToken);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken current = found.get();
+        Instant now = Instant.now();
+        if (current.getRevokedAt() != null) {
+            if (current.getReplacedBy() != null) {
+                log.warn("Refresh token reutilizado; se revoca la sesión {}", current.getFamilyId());
+                refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            }
+            return Optional.empty();
+        }
+        User user = current.getUser();
+        if (current.getExpiresAt().isBefore(now) || !user.isEnabled()
+                || current.getTokenVersion() != user.getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return Optional.empty();
+        }
+        // Antes de marcarlo: markRotated limpia el contexto y los roles del usuario ya no se cargan
+        String accessToken = jwtTokenHelper.generateToken(user);
+        UUID nextId = UUID.randomUUID();
+        if (refreshTokenRepository.markRotated(current.getId(), nextId, now) == 0) {
+            // Otra petición lo usó a la vez
+            log.warn("Refresh token usado en paralelo; se revoca la sesión {}", current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return Optional.empty();
+        }
+        String next = create(user, current.getFamilyId(), nextId);
+        return Optional.of(new IssuedTokens(accessToken, next));
+    }
+
+    // Cierre de sesión: revoca la familia del refresh token
+    @Transactional
+    public void revoke(String refreshToken) {
+        find(refreshToken).ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgeExpired() {
+        try {
+            refreshTokenRepository.deleteExpired(Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Error al eliminar refresh tokens expirados", e);
+        }
+    }
+
+    private String create(User user, UUID familyId, UUID id) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String encodedSecret = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        Instant now = Instant.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(id)
+                .familyId(familyId)
+                .user(user)
+                .secretHash(hash(encodedSecret))
+                .tokenVersion(user.getTokenVersion())
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(refreshExpiresIn))
+                .build());
+        return id + "." + encodedSecret;
+    }
+
+    // "<id>.<secreto>" con el hash del secreto correcto
+    private Optional<RefreshToken> find(String refreshToken) {
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
+        int dot = refreshToken.indexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(refreshToken.substring(0, dot));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        byte[] presented = hash(refreshToken.substring(dot + 1)).getBytes(StandardCharsets.US_ASCII);
+        return refreshTokenRepository.findWithUserById(id)
+                .filter(token -> MessageDigest.isEqual(presented, token.getSecretHash().getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String hash(String secret) {
+        return Hashing.sha256().hashString(secret, StandardCharsets.US_ASCII).toString();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -25,6 +26,9 @@ public class ResetPasswordService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public ResponseEntity<?> resetPassword(String token, String newPassword) {
         User user = userDetailRepository.findByResetToken(token);
 
@@ -35,7 +39,10 @@ public class ResetPasswordService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
+        // Las sesiones abiertas con la contraseña anterior dejan de valer
+        user.revokeTokens();
         userDetailRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
 
         return ResponseEntity.ok("Contraseña restablecida con éxito.");
     }
@@ -0,0 +1,124 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.tambo.tambo_delivery_backend.auth.entities.RevokedToken;
+import com.tambo.tambo_delivery_backend.auth.repositories.RevokedTokenRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Access tokens revocados antes de expirar (jti). Cada petición consulta un filtro de Bloom que se
+// reconstruye periódicamente desde AUTH_REVOKED_TOKEN: si dice que no, el token no está revocado y no
+// se toca la base de datos. Los revocados en esta instancia, y los positivos ya confirmados, están en
+// un conjunto exacto y se rechazan al momento. Los de otras instancias, tras la siguiente reconstrucción
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedInsertions;
+    // jti revocado -> expiración del token; se purga en cada reconstrucción
+    private final Map<String, Instant> confirmed = new ConcurrentHashMap<>();
+    // Falsos positivos del filtro ya comprobados, hasta la siguiente reconstrucción
+    private final Cache<String, Boolean> notRevoked;
+    private volatile BloomFilter<CharSequence> filter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.auth.revocation.expected-insertions:10000}") int expectedInsertions,
+            @Value("${jwt.auth.revocation.refresh-ms:30000}") long refreshMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.notRevoked = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(refreshMs, TimeUnit.MILLISECONDS)
+                .build();
+        this.filter = newFilter(0);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (confirmed.containsKey(jti)) {
+            return true;
+        }
+        if (!filter.mightContain(jti) || notRevoked.getIfPresent(jti) != null) {
+            return false;
+        }
+        // Revocado en otra instancia, o falso positivo: se confirma en la base de datos
+        return revokedTokenRepository.findById(jti)
+                .map(revoked -> {
+                    confirmed.put(jti, revoked.getExpiresAt());
+                    return true;
+                })
+                .orElseGet(() -> {
+                    notRevoked.put(jti, Boolean.TRUE);
+                    return false;
+                });
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder().jti(jti).expiresAt(expiresAt).build());
+        confirmed.put(jti, expiresAt);
+        filter.put(jti);
+        notRevoked.invalidate(jti);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar la lista de tokens revocados al iniciar", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.auth.revocation.refresh-ms:30000}",
+            initialDelayString = "${jwt.auth.revocation.refresh-ms:30000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Error al reconstruir el filtro de tokens revocados", e);
+        }
+    }
+
+    // Nuevo filtro con los revocados vigentes; los expirados se eliminan de la tabla y del conjunto exacto
+    public void rebuild() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpired(now);
+        List<String> active = revokedTokenRepository.findActiveJtis(now);
+        BloomFilter<CharSequence> rebuilt = newFilter(active.size() + confirmed.size());
+        active.forEach(rebuilt::put);
+        confirmed.entrySet().removeIf(entry -> !entry.getValue().isAfter(now));
+        confirmed.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        notRevoked.invalidateAll();
+    }
+
+    private BloomFilter<CharSequence> newFilter(int entries) {
+        // Holgura para lo que se revoque hasta la próxima reconstrucción
+        int capacity = Math.max(expectedInsertions, entries * 2);
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, FALSE_POSITIVE_RATE);
+    }
+}
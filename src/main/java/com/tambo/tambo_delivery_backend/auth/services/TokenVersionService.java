@@ -0,0 +1,50 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+
+// Revocación de JWT sin consultar la base de datos en cada petición: el token lleva la versión con la
+// que se emitió y se compara con la versión vigente del usuario, guardada en memoria unos segundos.
+// Los cambios hechos en esta instancia se ven al momento (UserChangedEvent); los de otras, al caducar
+// la entrada.
+@Service
+public class TokenVersionService {
+
+    // Usuario inexistente o deshabilitado: ningún token coincide
+    private static final int REVOKED = -1;
+
+    private final LoadingCache<String, Integer> versions;
+
+    public TokenVersionService(UserDetailRepository userDetailRepository,
+            @Value("${jwt.auth.version-cache-seconds:30}") long cacheSeconds) {
+        this.versions = CacheBuilder.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheSeconds, TimeUnit.SECONDS)
+                .build(CacheLoader.from(email -> {
+                    Integer version = userDetailRepository.findActiveTokenVersion(email);
+                    return version != null ? version : REVOKED;
+                }));
+    }
+
+    public boolean isCurrent(String email, int tokenVersion) {
+        return tokenVersion != REVOKED && versions.getUnchecked(email) == tokenVersion;
+    }
+
+    // Después del commit, para no volver a cargar la versión anterior
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.email() == null) {
+            versions.invalidateAll();
+        } else {
+            versions.invalidate(event.email());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+// Se publica al modificar un usuario (datos, estado, contraseña o roles). email null: todos los usuarios,
+// por ejemplo al cambiar o eliminar un rol
+public record UserChangedEvent(String email) {
+
+    public static UserChangedEvent allUsers() {
+        return new UserChangedEvent(null);
+    }
+}
@@ -1,8 +1,11 @@
 package com.tambo.tambo_delivery_backend.auth.services;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ServerErrorException;
@@ -14,6 +17,7 @@ import com.tambo.tambo_delivery_backend.auth.entities.User;
 import com.tambo.tambo_delivery_backend.auth.helper.VerificationCodeGenerator;
 import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
 import com.tambo.tambo_delivery_backend.dto.request.UserRequestDtoAdmin;
+import com.tambo.tambo_delivery_backend.exceptions.PasswordHashingBusyEx;
 
 @Service
 public class UserService {
@@ -30,6 +34,9 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Registro de usuarios
     public UserResponseDto createUser(RegistrationRequest request) {
 
@@ -107,6 +114,7 @@ public class UserService {
                     existing.setProvider("manual");
 
                     userDetailRepository.save(existing);
+                    eventPublisher.publishEvent(new UserChangedEvent(existing.getEmail()));
                     emailService.sendEmail(existing);
 
                     return UserResponseDto.builder()
@@ -141,6 +149,8 @@ public class UserService {
                     .message("Usuario creado!")
                     .build();
 
+        } catch (PasswordHashingBusyEx e) {
+            throw e;
         } catch (Exception e) {
             System.out.println("error: " + e.getMessage());
             throw new ServerErrorException(e.getMessage(), e.getCause());
@@ -153,6 +163,7 @@ public class UserService {
         // Activa cuentas al verificar el código (cambia enabled a true)
         user.setEnabled(true);
         userDetailRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userName));
     }
 
     // Actualizar usuario
@@ -195,6 +206,7 @@ public class UserService {
             }
 
             userDetailRepository.save(existing);
+            eventPublisher.publishEvent(new UserChangedEvent(existing.getEmail()));
 
             return UserResponseDto.builder()
                     .code(200)
@@ -241,6 +253,8 @@ public class UserService {
 
             return created;
 
+        } catch (PasswordHashingBusyEx e) {
+            throw e;
         } catch (RuntimeException e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -251,6 +265,7 @@ public class UserService {
 
         try {
             User user = userDetailRepository.findByEmail(email);
+            List<String> previousRoles = roleCodes(user);
             user.setFirstName(request.getFirstName());
             user.setLastName(request.getLastName());
             user.setProfileImageUrl(request.getProfileImageUrl());
@@ -261,8 +276,14 @@ public class UserService {
                 user.setEnabled(request.getEnabled());
             }
             user.setAuthorities(authorityService.getRequestedAuthorities(request.getRoles()));
+            // Los roles viajan en el token: si cambian, o cambia el email, los tokens emitidos se revocan
+            if (!roleCodes(user).equals(previousRoles) || !email.equals(user.getEmail())) {
+                user.revokeTokens();
+            }
 
             User update = userDetailRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(email));
+            eventPublisher.publishEvent(new UserChangedEvent(update.getEmail()));
 
             return update;
 
@@ -280,6 +301,7 @@ public class UserService {
         }
         user.setEnabled(false);
         userDetailRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(email));
     }
 
     // Activar usuario
@@ -289,7 +311,9 @@ public class UserService {
             throw new RuntimeException("Usuario no encontrado");
         }
         user.setEnabled(true);
-        return userDetailRepository.save(user);
+        User activated = userDetailRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(email));
+        return activated;
     }
 
     // Cambiar estado de usuario (toggle)
@@ -299,7 +323,20 @@ public class UserService {
             throw new RuntimeException("Usuario no encontrado");
         }
         user.setEnabled(!user.isEnabled());
-        return userDetailRepository.save(user);
+        User toggled = userDetailRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(email));
+        return toggled;
+    }
+
+    private static List<String> roleCodes(User user) {
+        if (user.getAuthorities() == null) {
+            return List.of();
+        }
+        return user.getAuthorities().stream()
+                .filter(Objects::nonNull)
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .toList();
     }
 
 }
@@ -0,0 +1,189 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.tambo.tambo_delivery_backend.dto.response.FacetCountDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductFacetsDTO;
+
+// Bitsets por valor de faceta sobre la foto del catálogo: el bit i corresponde al producto
+// en la posición i de la foto. Filtrar es un AND de bitsets y contar es su cardinalidad.
+// Inmutable: los bitsets internos nunca se modifican (se clonan antes de operar).
+final class CatalogFacets {
+
+    // Límites de los rangos de precio mostrados (S/); el último rango queda abierto
+    private static final int[] PRICE_EDGES = {0, 10, 20, 50, 100};
+
+    private final int size;
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<UUID, BitSet> byCategory = new LinkedHashMap<>();
+    private final Map<UUID, BitSet> byType = new LinkedHashMap<>();
+    private final Map<UUID, BitSet> byBrand = new LinkedHashMap<>();
+    private final BitSet[] byPriceRange = new BitSet[PRICE_EDGES.length];
+    private final BitSet newArrival = new BitSet();
+    private final BitSet onDiscount = new BitSet();
+    private final Map<UUID, String> labels = new HashMap<>();
+    private final BigDecimal[] prices;
+
+    CatalogFacets(List<ProductDTO> products) {
+        this.size = products.size();
+        this.prices = new BigDecimal[size];
+        for (int i = 0; i < byPriceRange.length; i++) {
+            byPriceRange[i] = new BitSet();
+        }
+        for (int i = 0; i < size; i++) {
+            ProductDTO product = products.get(i);
+            ordinals.put(product.getId(), i);
+            prices[i] = CatalogSnapshot.effectivePrice(product);
+
+            set(byCategory, product.getCategory().getId(), i);
+            labels.put(product.getCategory().getId(), product.getCategory().getName());
+            if (product.getCategoryType() != null) {
+                set(byType, product.getCategoryType().getId(), i);
+                labels.put(product.getCategoryType().getId(), product.getCategoryType().getName());
+            }
+            set(byBrand, product.getBrand().getId(), i);
+            labels.put(product.getBrand().getId(), product.getBrand().getName());
+
+            byPriceRange[priceRange(prices[i])].set(i);
+            if (Boolean.TRUE.equals(product.getIsNewArrival())) {
+                newArrival.set(i);
+            }
+            if (isOnDiscount(product)) {
+                onDiscount.set(i);
+            }
+        }
+    }
+
+    // textMatches: productos que coinciden con la búsqueda por texto (null si no hay texto)
+    ProductFacetsDTO count(CatalogQuery query, Collection<ProductDTO> textMatches) {
+        BitSet category = query.categoryId() != null ? bits(byCategory, query.categoryId()) : null;
+        BitSet type = query.typeId() != null ? bits(byType, query.typeId()) : null;
+        BitSet brand = query.brandId() != null ? bits(byBrand, query.brandId()) : null;
+        BitSet price = query.minPrice() != null || query.maxPrice() != null
+                ? priceFilter(query.minPrice(), query.maxPrice())
+                : null;
+        BitSet arrival = query.newArrival() != null ? flag(newArrival, query.newArrival()) : null;
+        BitSet discount = query.onDiscount() != null ? flag(onDiscount, query.onDiscount()) : null;
+        BitSet text = textMatches != null ? ordinalsOf(textMatches) : null;
+
+        BitSet all = and(category, type, brand, price, arrival, discount, text);
+        return ProductFacetsDTO.builder()
+                .total(all.cardinality())
+                .categories(counts(byCategory, and(type, brand, price, arrival, discount, text)))
+                .categoryTypes(counts(byType, and(category, brand, price, arrival, discount, text)))
+                .brands(counts(byBrand, and(category, type, price, arrival, discount, text)))
+                .priceRanges(priceCounts(and(category, type, brand, arrival, discount, text)))
+                .newArrival(intersection(newArrival, and(category, type, brand, price, discount, text)))
+                .onDiscount(intersection(onDiscount, and(category, type, brand, price, arrival, text)))
+                .build();
+    }
+
+    static boolean isOnDiscount(ProductDTO product) {
+        return product.getDiscountPercentage() != null
+                && product.getDiscountPercentage().signum() > 0;
+    }
+
+    private List<FacetCountDTO> counts(Map<UUID, BitSet> facet, BitSet base) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        facet.forEach((id, bits) -> {
+            long count = intersection(bits, base);
+            if (count > 0) {
+                counts.add(new FacetCountDTO(id.toString(), labels.get(id), count));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCountDTO::getCount).reversed()
+                .thenComparing(FacetCountDTO::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+        return counts;
+    }
+
+    private List<FacetCountDTO> priceCounts(BitSet base) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (int i = 0; i < PRICE_EDGES.length; i++) {
+            long count = intersection(byPriceRange[i], base);
+            if (count > 0) {
+                boolean last = i == PRICE_EDGES.length - 1;
+                String key = last ? PRICE_EDGES[i] + "-" : PRICE_EDGES[i] + "-" + PRICE_EDGES[i + 1];
+                String label = last
+                        ? "Más de S/ " + PRICE_EDGES[i]
+                        : "S/ " + PRICE_EDGES[i] + " - S/ " + PRICE_EDGES[i + 1];
+                counts.add(new FacetCountDTO(key, label, count));
+            }
+        }
+        return counts;
+    }
+
+    // Rango libre de precios: un recorrido por la foto
+    private BitSet priceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet bits = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if ((minPrice == null || prices[i].compareTo(minPrice) >= 0)
+                    && (maxPrice == null || prices[i].compareTo(maxPrice) <= 0)) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet ordinalsOf(Collection<ProductDTO> products) {
+        BitSet bits = new BitSet(size);
+        for (ProductDTO product : products) {
+            Integer ordinal = ordinals.get(product.getId());
+            if (ordinal != null) {
+                bits.set(ordinal);
+            }
+        }
+        return bits;
+    }
+
+    private BitSet flag(BitSet bits, boolean value) {
+        BitSet copy = (BitSet) bits.clone();
+        if (!value) {
+            copy.flip(0, size);
+        }
+        return copy;
+    }
+
+    // AND de los filtros presentes (null = sin filtro); sin filtros, todos los productos
+    private BitSet and(BitSet... filters) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static long intersection(BitSet bits, BitSet base) {
+        BitSet copy = (BitSet) bits.clone();
+        copy.and(base);
+        return copy.cardinality();
+    }
+
+    private static BitSet bits(Map<UUID, BitSet> facet, UUID id) {
+        return facet.getOrDefault(id, new BitSet());
+    }
+
+    private static void set(Map<UUID, BitSet> facet, UUID id, int ordinal) {
+        facet.computeIfAbsent(id, k -> new BitSet()).set(ordinal);
+    }
+
+    private static int priceRange(BigDecimal price) {
+        int range = 0;
+        while (range < PRICE_EDGES.length - 1 && price.compareTo(BigDecimal.valueOf(PRICE_EDGES[range + 1])) >= 0) {
+            range++;
+        }
+        return range;
+    }
+}
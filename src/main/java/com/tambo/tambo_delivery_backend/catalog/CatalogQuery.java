@@ -0,0 +1,43 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+
+import lombok.Builder;
+
+// Filtros del catálogo público; los campos nulos no filtran. El rango de precios se aplica
+// sobre el precio efectivo (con el descuento vigente) y sort nulo equivale a NEWEST
+@Builder(toBuilder = true)
+public record CatalogQuery(UUID categoryId, UUID typeId, UUID brandId, String name, BigDecimal minPrice,
+        BigDecimal maxPrice, Boolean newArrival, Boolean onDiscount, CatalogSort sort) {
+
+    public boolean matches(ProductDTO product) {
+        if (categoryId != null && !categoryId.equals(product.getCategory().getId())) {
+            return false;
+        }
+        if (typeId != null && (product.getCategoryType() == null
+                || !typeId.equals(product.getCategoryType().getId()))) {
+            return false;
+        }
+        if (brandId != null && !brandId.equals(product.getBrand().getId())) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(name) && !StringUtils.containsIgnoreCase(product.getName(), name)) {
+            return false;
+        }
+        if (minPrice != null && CatalogSnapshot.effectivePrice(product).compareTo(minPrice) < 0) {
+            return false;
+        }
+        if (maxPrice != null && CatalogSnapshot.effectivePrice(product).compareTo(maxPrice) > 0) {
+            return false;
+        }
+        if (onDiscount != null && onDiscount != CatalogFacets.isOnDiscount(product)) {
+            return false;
+        }
+        return newArrival == null || newArrival.equals(product.getIsNewArrival());
+    }
+}
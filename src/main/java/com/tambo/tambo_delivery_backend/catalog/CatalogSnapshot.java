@@ -0,0 +1,186 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimaps;
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductFacetsDTO;
+
+// Foto inmutable de los productos activos con índices secundarios.
+// Cada escritura construye una nueva instancia (copy-on-write); las lecturas nunca bloquean.
+// Los ProductDTO se comparten entre peticiones y no deben modificarse.
+public final class CatalogSnapshot {
+
+    // Ancho de los rangos de precio (S/ 10) usados por el índice de precios
+    private static final BigDecimal PRICE_BUCKET_WIDTH = BigDecimal.TEN;
+
+    // Mismo orden que la búsqueda paginada: más recientes primero, id como desempate
+    private static final Comparator<ProductDTO> ORDER = Comparator
+            .comparing(ProductDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ProductDTO::getId, Comparator.reverseOrder());
+
+    private static final Comparator<ProductDTO> BY_PRICE = Comparator
+            .comparing(CatalogSnapshot::effectivePrice)
+            .thenComparing(ORDER);
+
+    private final long version;
+    private final ImmutableList<ProductDTO> products;
+    private final ImmutableList<ProductDTO> byPrice;
+    private final ImmutableMap<String, ProductDTO> bySlug;
+    private final ImmutableListMultimap<UUID, ProductDTO> byCategory;
+    private final ImmutableListMultimap<UUID, ProductDTO> byType;
+    private final ImmutableListMultimap<UUID, ProductDTO> byBrand;
+    private final ImmutableSortedMap<Long, List<ProductDTO>> byPriceBucket;
+    private final CatalogFacets facets;
+
+    private CatalogSnapshot(long version, Collection<ProductDTO> products) {
+        this.version = version;
+        this.products = ImmutableList.sortedCopyOf(ORDER, products);
+        this.byPrice = ImmutableList.sortedCopyOf(BY_PRICE, products);
+        this.bySlug = indexBySlug(this.products);
+        this.byCategory = Multimaps.index(this.products, p -> p.getCategory().getId());
+        this.byType = Multimaps.index(
+                this.products.stream().filter(p -> p.getCategoryType() != null).iterator(),
+                p -> p.getCategoryType().getId());
+        this.byBrand = Multimaps.index(this.products, p -> p.getBrand().getId());
+        this.byPriceBucket = ImmutableSortedMap.copyOf(
+                Multimaps.asMap(Multimaps.index(this.products, p -> priceBucket(effectivePrice(p)))));
+        this.facets = new CatalogFacets(this.products);
+    }
+
+    public static CatalogSnapshot of(long version, Collection<ProductDTO> products) {
+        return new CatalogSnapshot(version, products);
+    }
+
+    // Nueva foto reemplazando los productos indicados por su versión recargada
+    // (los que no aparecen en reloaded se eliminan)
+    public CatalogSnapshot patch(long newVersion, Set<UUID> productIds, Collection<ProductDTO> reloaded) {
+        List<ProductDTO> merged = new ArrayList<>(products.size() + reloaded.size());
+        for (ProductDTO product : products) {
+            if (!productIds.contains(product.getId())) {
+                merged.add(product);
+            }
+        }
+        merged.addAll(reloaded);
+        return new CatalogSnapshot(newVersion, merged);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public Optional<ProductDTO> findBySlug(String slug) {
+        return Optional.ofNullable(bySlug.get(slug));
+    }
+
+    public List<ProductDTO> query(CatalogQuery query) {
+        return query(query, Integer.MAX_VALUE);
+    }
+
+    public List<ProductDTO> query(CatalogQuery query, int limit) {
+        return sorted(candidates(query), query.sort()).stream()
+                .filter(query::matches)
+                .limit(limit)
+                .toList();
+    }
+
+    // Precio que paga el cliente hoy
+    static BigDecimal effectivePrice(ProductDTO product) {
+        return product.getDiscountedPrice() != null ? product.getDiscountedPrice() : product.getPrice();
+    }
+
+    // Sin filtros selectivos se usa la lista ya ordenada por precio; si no, se ordena el subconjunto
+    private List<ProductDTO> sorted(List<ProductDTO> candidates, CatalogSort sort) {
+        if (sort == null || sort == CatalogSort.NEWEST) {
+            return candidates;
+        }
+        List<ProductDTO> ascending;
+        if (candidates == products) {
+            ascending = byPrice;
+        } else {
+            ascending = new ArrayList<>(candidates);
+            ascending.sort(BY_PRICE);
+        }
+        return sort == CatalogSort.PRICE_ASC ? ascending : Lists.reverse(ascending);
+    }
+
+    // textMatches: resultado de la búsqueda por texto, o null si la consulta no tiene texto
+    public ProductFacetsDTO facets(CatalogQuery query, Collection<ProductDTO> textMatches) {
+        return facets.count(query, textMatches);
+    }
+
+    // Elige el índice más selectivo disponible para el filtro; el resto de condiciones se
+    // evalúa sobre esa lista de candidatos
+    private List<ProductDTO> candidates(CatalogQuery query) {
+        List<ProductDTO> best = products;
+        if (query.typeId() != null) {
+            best = smaller(best, byType.get(query.typeId()));
+        }
+        if (query.categoryId() != null) {
+            best = smaller(best, byCategory.get(query.categoryId()));
+        }
+        if (query.brandId() != null) {
+            best = smaller(best, byBrand.get(query.brandId()));
+        }
+        if (query.minPrice() != null || query.maxPrice() != null) {
+            Map<Long, List<ProductDTO>> buckets = priceBuckets(query.minPrice(), query.maxPrice());
+            int total = buckets.values().stream().mapToInt(List::size).sum();
+            if (total < best.size()) {
+                List<ProductDTO> inRange = new ArrayList<>(total);
+                buckets.values().forEach(inRange::addAll);
+                inRange.sort(ORDER);
+                best = inRange;
+            }
+        }
+        return best;
+    }
+
+    private Map<Long, List<ProductDTO>> priceBuckets(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null) {
+            if (minPrice.compareTo(maxPrice) > 0) {
+                return Map.of();
+            }
+            return byPriceBucket.subMap(priceBucket(minPrice), true, priceBucket(maxPrice), true);
+        }
+        return minPrice != null
+                ? byPriceBucket.tailMap(priceBucket(minPrice), true)
+                : byPriceBucket.headMap(priceBucket(maxPrice), true);
+    }
+
+    private static List<ProductDTO> smaller(List<ProductDTO> a, List<ProductDTO> b) {
+        return b.size() < a.size() ? b : a;
+    }
+
+    private static long priceBucket(BigDecimal price) {
+        return price.divideToIntegralValue(PRICE_BUCKET_WIDTH).longValue();
+    }
+
+    // El slug es único en BD; ante un duplicado transitorio gana el más reciente
+    private static ImmutableMap<String, ProductDTO> indexBySlug(List<ProductDTO> products) {
+        Map<String, ProductDTO> index = new HashMap<>();
+        products.forEach(p -> index.putIfAbsent(p.getSlug(), p));
+        return ImmutableMap.copyOf(index);
+    }
+}
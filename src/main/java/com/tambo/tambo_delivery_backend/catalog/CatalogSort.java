@@ -0,0 +1,8 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+// Orden de los resultados del catálogo. Los precios son los efectivos (con descuento vigente)
+public enum CatalogSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC
+}
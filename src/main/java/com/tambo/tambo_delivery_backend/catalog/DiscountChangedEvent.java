@@ -0,0 +1,7 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.util.UUID;
+
+// Se publica al crear, modificar o eliminar un descuento
+public record DiscountChangedEvent(UUID discountId) {
+}
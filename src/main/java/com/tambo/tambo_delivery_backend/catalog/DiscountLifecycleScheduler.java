@@ -0,0 +1,141 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.repositories.DiscountRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Programa el inicio (00:00 de startDate) y el fin (00:00 del día siguiente a endDate) de cada
+// descuento en una DelayQueue. Al llegar cada límite publica DiscountChangedEvent, de modo que
+// el índice de precios y el catálogo cambian justo a esa hora y no en el siguiente refresco.
+// No modifica isActive: ese campo sigue siendo el interruptor manual del administrador.
+@Slf4j
+@Component
+public class DiscountLifecycleScheduler {
+
+    private record Boundary(UUID discountId, Instant at, Clock clock) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(at.toEpochMilli() - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return at.compareTo(((Boundary) other).at);
+        }
+    }
+
+    private final DiscountRepository discountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DelayQueue<Boundary> boundaries = new DelayQueue<>();
+    private final Clock clock;
+    private Thread worker;
+
+    @Autowired
+    public DiscountLifecycleScheduler(DiscountRepository discountRepository,
+            ApplicationEventPublisher eventPublisher) {
+        this(discountRepository, eventPublisher, Clock.systemDefaultZone());
+    }
+
+    // Reloj configurable para las pruebas
+    DiscountLifecycleScheduler(DiscountRepository discountRepository, ApplicationEventPublisher eventPublisher,
+            Clock clock) {
+        this.discountRepository = discountRepository;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            discountRepository.findAll().forEach(this::schedule);
+            log.info("Límites de descuentos programados: {}", boundaries.size());
+        } catch (RuntimeException e) {
+            // El cambio de día del catálogo sigue aplicando los descuentos aunque falle la carga
+            log.error("No se pudieron programar los límites de los descuentos", e);
+        }
+        worker = Thread.ofPlatform().daemon().name("discount-lifecycle").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Reprograma el descuento con sus fechas actuales (o lo quita si se eliminó)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        try {
+            boundaries.removeIf(b -> b.discountId().equals(event.discountId()));
+            discountRepository.findById(event.discountId()).ifPresent(this::schedule);
+        } catch (RuntimeException e) {
+            log.error("Error al reprogramar el descuento {}", event.discountId(), e);
+        }
+    }
+
+    // Publica los límites ya alcanzados sin esperar a los siguientes
+    void publishDue() {
+        Boundary boundary;
+        while ((boundary = boundaries.poll()) != null) {
+            publish(boundary);
+        }
+    }
+
+    int pendingBoundaries() {
+        return boundaries.size();
+    }
+
+    private void schedule(Discount discount) {
+        Instant now = clock.instant();
+        for (LocalDate day : boundaryDays(discount)) {
+            Instant at = day.atStartOfDay(clock.getZone()).toInstant();
+            if (at.isAfter(now)) {
+                boundaries.add(new Boundary(discount.getId(), at, clock));
+            }
+        }
+    }
+
+    private void publish(Boundary boundary) {
+        log.info("Límite de descuento alcanzado: {} ({})", boundary.discountId(), boundary.at());
+        eventPublisher.publishEvent(new DiscountChangedEvent(boundary.discountId()));
+    }
+
+    private static List<LocalDate> boundaryDays(Discount discount) {
+        if (discount.getStartDate() == null || discount.getEndDate() == null) {
+            return List.of();
+        }
+        return List.of(discount.getStartDate(), discount.getEndDate().plusDays(1));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                publish(boundaries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error al aplicar el límite de un descuento", e);
+            }
+        }
+    }
+}
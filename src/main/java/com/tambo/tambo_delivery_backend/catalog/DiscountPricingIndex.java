@@ -0,0 +1,151 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.SetMultimap;
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.repositories.DiscountRepository;
+
+// Descuento vigente de cada producto, precalculado para el día actual. Guarda las reglas de cada
+// descuento (porcentaje, fechas, activo) y a qué productos aplica, y mantiene un mapa inmutable
+// producto -> porcentaje que se consulta sin tocar la BD ni evaluar fechas por petición.
+// Si varios descuentos aplican a la vez, gana el de mayor porcentaje.
+@Component
+public class DiscountPricingIndex {
+
+    private record Rule(BigDecimal percentage, LocalDate startDate, LocalDate endDate, boolean active) {
+
+        static Rule of(Discount discount) {
+            return new Rule(discount.getPercentage(), discount.getStartDate(), discount.getEndDate(),
+                    Boolean.TRUE.equals(discount.getIsActive()));
+        }
+
+        boolean appliesOn(LocalDate day) {
+            return active && percentage != null
+                    && startDate != null && !startDate.isAfter(day)
+                    && endDate != null && !endDate.isBefore(day);
+        }
+    }
+
+    private final DiscountRepository discountRepository;
+
+    private final Object lock = new Object();
+    private final Map<UUID, Rule> rules = new HashMap<>();
+    private final SetMultimap<UUID, UUID> discountsByProduct = HashMultimap.create();
+    private volatile Map<UUID, BigDecimal> effective = Map.of();
+
+    public DiscountPricingIndex(DiscountRepository discountRepository) {
+        this.discountRepository = discountRepository;
+    }
+
+    // Porcentaje vigente hoy (0 si no tiene descuento)
+    public BigDecimal percentageOf(UUID productId) {
+        return effective.getOrDefault(productId, BigDecimal.ZERO);
+    }
+
+    public void reload() {
+        List<Discount> discounts = discountRepository.findAll();
+        List<Object[]> links = discountRepository.findAllProductLinks();
+        synchronized (lock) {
+            rules.clear();
+            discounts.forEach(d -> rules.put(d.getId(), Rule.of(d)));
+            discountsByProduct.clear();
+            links.forEach(row -> discountsByProduct.put((UUID) row[0], (UUID) row[1]));
+            recompute(LocalDate.now());
+        }
+    }
+
+    // Vuelve a leer a qué descuentos pertenecen los productos indicados (p. ej. tras editar un producto)
+    public void refreshProducts(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> links = discountRepository.findProductLinksByProductIds(productIds);
+        synchronized (lock) {
+            productIds.forEach(discountsByProduct::removeAll);
+            links.forEach(row -> discountsByProduct.put((UUID) row[0], (UUID) row[1]));
+            loadMissingRules();
+            recompute(LocalDate.now());
+        }
+    }
+
+    // Recarga un descuento; devuelve los productos afectados (miembros antes o después del cambio)
+    public Set<UUID> refreshDiscount(UUID discountId) {
+        Discount discount = discountRepository.findById(discountId).orElse(null);
+        List<UUID> productIds = discount != null
+                ? discountRepository.findProductIdsByDiscountId(discountId)
+                : List.of();
+        synchronized (lock) {
+            Set<UUID> affected = new HashSet<>(productIds);
+            discountsByProduct.entries().removeIf(e -> {
+                if (e.getValue().equals(discountId)) {
+                    affected.add(e.getKey());
+                    return true;
+                }
+                return false;
+            });
+            if (discount == null) {
+                rules.remove(discountId);
+            } else {
+                rules.put(discountId, Rule.of(discount));
+                productIds.forEach(productId -> discountsByProduct.put(productId, discountId));
+            }
+            affected.addAll(recompute(LocalDate.now()));
+            return affected;
+        }
+    }
+
+    // Recalcula para la fecha indicada (cambio de día); devuelve los productos afectados
+    public Set<UUID> rollover(LocalDate newDay) {
+        synchronized (lock) {
+            return recompute(newDay);
+        }
+    }
+
+    private void loadMissingRules() {
+        Set<UUID> missing = new HashSet<>(discountsByProduct.values());
+        missing.removeAll(rules.keySet());
+        if (!missing.isEmpty()) {
+            discountRepository.findAllById(missing).forEach(d -> rules.put(d.getId(), Rule.of(d)));
+        }
+    }
+
+    private Set<UUID> recompute(LocalDate newDay) {
+        Map<UUID, BigDecimal> next = new HashMap<>();
+        for (Map.Entry<UUID, UUID> link : discountsByProduct.entries()) {
+            Rule rule = rules.get(link.getValue());
+            if (rule != null && rule.appliesOn(newDay)) {
+                next.merge(link.getKey(), rule.percentage(), BigDecimal::max);
+            }
+        }
+
+        Map<UUID, BigDecimal> previous = effective;
+        Set<UUID> changed = new HashSet<>();
+        for (UUID productId : union(previous.keySet(), next.keySet())) {
+            if (!Objects.equals(previous.get(productId), next.get(productId))) {
+                changed.add(productId);
+            }
+        }
+        effective = ImmutableMap.copyOf(next);
+        return changed;
+    }
+
+    private static Set<UUID> union(Set<UUID> a, Set<UUID> b) {
+        Set<UUID> union = new HashSet<>(a);
+        union.addAll(b);
+        return union;
+    }
+}
@@ -0,0 +1,236 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductFacetsDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSuggestionDTO;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.repositories.OrderItemRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Catálogo público en memoria: las lecturas de la tienda se sirven desde una foto inmutable
+// que se reconstruye (o se parchea) cuando una escritura publica ProductCatalogChangedEvent.
+@Slf4j
+@Service
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final DiscountPricingIndex discountPricing;
+    private final TransactionTemplate readTransaction;
+
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final AtomicLong versions = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile CatalogSnapshot snapshot;
+    private volatile SuggestionTrie suggestions;
+    // Unidades vendidas por producto; se recalcula en cada carga completa y, para los productos
+    // parcheados (ediciones y ventas), en cada patch. Protegido por writeLock
+    private Map<UUID, Long> popularity = new HashMap<>();
+
+    public ProductCatalog(ProductRepository productRepository, OrderItemRepository orderItemRepository,
+            DiscountPricingIndex discountPricing, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.discountPricing = discountPricing;
+        // Transacción propia: los eventos llegan después del commit de la transacción que escribió
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    public Optional<ProductDTO> findBySlug(String slug) {
+        return current().findBySlug(slug);
+    }
+
+    public List<ProductDTO> query(CatalogQuery query) {
+        return query(query, Integer.MAX_VALUE);
+    }
+
+    // Con texto, los candidatos salen del índice de búsqueda ordenados por relevancia
+    // (o por precio si se pide) y el resto de filtros se aplica sobre ellos
+    public List<ProductDTO> query(CatalogQuery query, int limit) {
+        if (!usesSearchIndex(query.name())) {
+            return current().query(query, limit);
+        }
+        CatalogQuery filters = query.toBuilder().name(null).build();
+        Stream<ProductDTO> matches = searchIndex.search(query.name()).stream()
+                .filter(filters::matches);
+        if (query.sort() == CatalogSort.PRICE_ASC) {
+            matches = matches.sorted(Comparator.comparing(CatalogSnapshot::effectivePrice));
+        } else if (query.sort() == CatalogSort.PRICE_DESC) {
+            matches = matches.sorted(Comparator.comparing(CatalogSnapshot::effectivePrice).reversed());
+        }
+        return matches.limit(limit).toList();
+    }
+
+    // Conteos por categoría, tipo, marca, rango de precio, novedad y descuento para los filtros
+    public ProductFacetsDTO facets(CatalogQuery query) {
+        CatalogSnapshot current = current();
+        List<ProductDTO> textMatches;
+        if (StringUtils.isBlank(query.name())) {
+            textMatches = null;
+        } else if (usesSearchIndex(query.name())) {
+            textMatches = searchIndex.search(query.name());
+        } else {
+            textMatches = current.getProducts().stream()
+                    .filter(p -> StringUtils.containsIgnoreCase(p.getName(), query.name()))
+                    .toList();
+        }
+        return current.facets(query, textMatches);
+    }
+
+    // Autocompletado: nombres que empiezan (o tienen una palabra que empieza) por el prefijo,
+    // los más vendidos primero
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        current();
+        return suggestions.suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el catálogo al iniciar; se reintentará en la primera lectura", e);
+        }
+    }
+
+    // Red de seguridad: cambios hechos por otras instancias o directamente en BD
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:600000}",
+            initialDelayString = "${catalog.refresh-interval-ms:600000}")
+    public void scheduledRefresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Error al refrescar el catálogo", e);
+        }
+    }
+
+    // Red de seguridad de DiscountLifecycleScheduler al cambiar el día: solo se actualizan los
+    // productos cuyo descuento vigente cambió
+    @Scheduled(cron = "0 0 0 * * *")
+    public void onNewDay() {
+        try {
+            Set<UUID> changed = discountPricing.rollover(LocalDate.now());
+            if (!changed.isEmpty()) {
+                patch(changed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al aplicar los descuentos del día", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        try {
+            Set<UUID> affected = inReadTransaction(() -> discountPricing.refreshDiscount(event.discountId()));
+            if (!affected.isEmpty()) {
+                patch(affected);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al actualizar el catálogo tras cambiar un descuento: {}", event, e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        try {
+            if (event.isFullRefresh()) {
+                reload();
+            } else {
+                patch(event.productIds());
+            }
+        } catch (RuntimeException e) {
+            // La escritura ya se confirmó; el refresco periódico corregirá la foto
+            log.error("Error al actualizar el catálogo tras un cambio: {}", event, e);
+        }
+    }
+
+    public CatalogSnapshot reload() {
+        synchronized (writeLock) {
+            List<ProductDTO> products = inReadTransaction(() -> {
+                popularity = orderItemRepository.sumQuantityByProduct().stream()
+                        .collect(Collectors.toMap(row -> (UUID) row[0], row -> ((Number) row[1]).longValue(),
+                                Long::sum, HashMap::new));
+                discountPricing.reload();
+                return productRepository.findAllByIsActiveTrue().stream()
+                        .map(this::toDTO)
+                        .toList();
+            });
+            CatalogSnapshot built = CatalogSnapshot.of(versions.incrementAndGet(), products);
+            searchIndex.rebuild(products);
+            suggestions = SuggestionTrie.of(built.getProducts(), popularity);
+            snapshot = built;
+            log.info("Catálogo cargado: {} productos (versión {})", built.size(), built.getVersion());
+            return built;
+        }
+    }
+
+    private void patch(Set<UUID> productIds) {
+        synchronized (writeLock) {
+            CatalogSnapshot base = current();
+            List<ProductDTO> reloaded = inReadTransaction(() -> {
+                discountPricing.refreshProducts(productIds);
+                productIds.forEach(popularity::remove);
+                orderItemRepository.sumQuantityByProductIdIn(productIds).forEach(
+                        row -> popularity.put((UUID) row[0], ((Number) row[1]).longValue()));
+                return productRepository.findAllByIdIn(productIds).stream()
+                        .filter(Product::isActive)
+                        .map(this::toDTO)
+                        .toList();
+            });
+            List<ProductDTO> previous = base.getProducts().stream()
+                    .filter(p -> productIds.contains(p.getId()))
+                    .toList();
+            CatalogSnapshot patched = base.patch(versions.incrementAndGet(), productIds, reloaded);
+            searchIndex.update(productIds, reloaded);
+            suggestions = suggestions.patch(previous, reloaded, popularity);
+            snapshot = patched;
+        }
+    }
+
+    // Una consulta hecha solo de palabras vacías ("de", "la"...) no tiene términos para el índice:
+    // en ese caso se filtra por subcadena del nombre, como antes de existir el índice
+    private static boolean usesSearchIndex(String text) {
+        return StringUtils.isNotBlank(text) && !SearchText.tokens(text).isEmpty();
+    }
+
+    private ProductDTO toDTO(Product product) {
+        return ProductMapper.toDTO(product, discountPricing.percentageOf(product.getId()));
+    }
+
+    private <T> T inReadTransaction(Supplier<T> work) {
+        return readTransaction.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,25 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.util.Set;
+import java.util.UUID;
+
+// Evento publicado por las operaciones de escritura que afectan al catálogo público.
+// productIds vacío significa que se debe reconstruir el catálogo completo.
+public record ProductCatalogChangedEvent(Set<UUID> productIds) {
+
+    public static ProductCatalogChangedEvent of(UUID productId) {
+        return new ProductCatalogChangedEvent(Set.of(productId));
+    }
+
+    public static ProductCatalogChangedEvent of(Set<UUID> productIds) {
+        return new ProductCatalogChangedEvent(Set.copyOf(productIds));
+    }
+
+    public static ProductCatalogChangedEvent all() {
+        return new ProductCatalogChangedEvent(Set.of());
+    }
+
+    public boolean isFullRefresh() {
+        return productIds.isEmpty();
+    }
+}
@@ -0,0 +1,242 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+
+// Índice invertido para la búsqueda por texto del catálogo (nombre, descripción, marca y categoría).
+// Ignora tildes, admite prefijos (búsqueda mientras se escribe) y un error de tipeo por palabra,
+// y ordena por relevancia (BM25 con pesos por campo). Se actualiza de forma incremental.
+public class ProductSearchIndex {
+
+    // Pesos por campo: una coincidencia en el nombre vale más que en la descripción
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Parámetros BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Las coincidencias aproximadas puntúan menos que las exactas
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double FUZZY_FACTOR = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private record Document(ProductDTO product, Map<String, Float> terms, float length) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    // término -> (producto -> frecuencia ponderada); ordenado para resolver prefijos con subMap
+    private final NavigableMap<String, Map<UUID, Float>> postings = new TreeMap<>();
+    // término con un carácter borrado -> términos que lo generan (candidatos a error de tipeo)
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private double totalLength;
+
+    public void rebuild(Collection<ProductDTO> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            deletions.clear();
+            totalLength = 0;
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reemplaza los productos indicados (los que no aparecen en reloaded se eliminan)
+    public void update(Set<UUID> productIds, Collection<ProductDTO> reloaded) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::remove);
+            reloaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Productos que contienen todas las palabras buscadas, del más al menos relevante
+    public List<ProductDTO> search(String text) {
+        List<String> tokens = List.copyOf(new LinkedHashSet<>(SearchText.tokens(text)));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Double> scores = null;
+            for (String token : tokens) {
+                Map<UUID, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<UUID, Double> ranked = scores;
+            return ranked.keySet().stream()
+                    .map(documents::get)
+                    .sorted(Comparator.<Document>comparingDouble(d -> ranked.get(d.product().getId()))
+                            .reversed()
+                            .thenComparing(d -> d.product().getName()))
+                    .map(Document::product)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<UUID, Double> scoreToken(String token) {
+        Map<UUID, Double> scores = new HashMap<>();
+        accumulate(scores, postings.get(token), 1.0);
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map<UUID, Float> posting : postings
+                    .subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                accumulate(scores, posting, PREFIX_FACTOR);
+            }
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyTerms(token)) {
+                accumulate(scores, postings.get(term), FUZZY_FACTOR);
+            }
+        }
+        return scores;
+    }
+
+    // Términos del índice a un error de distancia: se cruzan las variantes con un carácter
+    // borrado de la consulta y de los términos indexados
+    private Set<String> fuzzyTerms(String token) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+        for (String deleted : deletionsOf(token)) {
+            if (postings.containsKey(deleted)) {
+                candidates.add(deleted);
+            }
+            candidates.addAll(deletions.getOrDefault(deleted, Set.of()));
+        }
+        candidates.remove(token);
+        candidates.removeIf(term -> !SearchText.withinOneEdit(token, term));
+        return candidates;
+    }
+
+    // BM25: se queda con la mejor coincidencia de cada producto para esta palabra
+    private void accumulate(Map<UUID, Double> scores, Map<UUID, Float> posting, double factor) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        int n = documents.size();
+        double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+        double avgLength = totalLength / n;
+        posting.forEach((id, tf) -> {
+            double norm = tf + K1 * (1 - B + B * documents.get(id).length() / avgLength);
+            double score = factor * idf * tf * (K1 + 1) / norm;
+            scores.merge(id, score, Math::max);
+        });
+    }
+
+    private void add(ProductDTO product) {
+        remove(product.getId());
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getBrand() != null) {
+            addField(terms, product.getBrand().getName(), BRAND_WEIGHT);
+        }
+        if (product.getCategory() != null) {
+            addField(terms, product.getCategory().getName(), CATEGORY_WEIGHT);
+        }
+        if (product.getCategoryType() != null) {
+            addField(terms, product.getCategoryType().getName(), CATEGORY_WEIGHT);
+        }
+
+        float length = (float) terms.values().stream().mapToDouble(Float::doubleValue).sum();
+        documents.put(product.getId(), new Document(product, terms, length));
+        totalLength += length;
+
+        terms.forEach((term, tf) -> {
+            Map<UUID, Float> posting = postings.computeIfAbsent(term, t -> {
+                deletionsOf(t).forEach(d -> deletions.computeIfAbsent(d, k -> new HashSet<>()).add(t));
+                return new HashMap<>();
+            });
+            posting.put(product.getId(), tf);
+        });
+    }
+
+    private void remove(UUID productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length();
+
+        for (String term : document.terms().keySet()) {
+            Map<UUID, Float> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (String deleted : deletionsOf(term)) {
+                    Set<String> origins = deletions.get(deleted);
+                    origins.remove(term);
+                    if (origins.isEmpty()) {
+                        deletions.remove(deleted);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : SearchText.tokens(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    // Variantes con un carácter borrado (solo para palabras con las que se tolera un error)
+    private static Set<String> deletionsOf(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return Set.of();
+        }
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+}
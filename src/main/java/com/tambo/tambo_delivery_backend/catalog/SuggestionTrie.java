@@ -0,0 +1,299 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSuggestionDTO;
+
+// Trie compacto (radix) e inmutable para el autocompletado por nombre. Cada nodo guarda de antemano
+// las TOP_K sugerencias más populares de su subárbol, así que una consulta solo recorre el prefijo.
+// Se indexa el nombre desde el inicio de cada palabra ("kola" encuentra "Gaseosa Inca Kola").
+// Los cambios de unos pocos productos (patch) copian solo los nodos en el camino de sus claves.
+public final class SuggestionTrie {
+
+    public static final int TOP_K = 10;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Node[] NO_CHILDREN = {};
+    private static final Entry[] NO_ENTRIES = {};
+
+    private record Entry(String key, UUID productId, ProductSuggestionDTO suggestion, long weight) {
+    }
+
+    // Más vendidos primero; a igual popularidad, orden alfabético (y el id como desempate, para que
+    // el resultado no dependa de si el trie se construyó de cero o con parches)
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(e -> e.suggestion().getName())
+            .thenComparing(Entry::productId);
+
+    private static final class Node {
+        private final String label;
+        private final Node[] children; // ordenados por el primer carácter de su etiqueta
+        private final Entry[] terminal; // claves que terminan en este nodo
+        private final Entry[] top;
+
+        private Node(String label, Node[] children, Entry[] terminal) {
+            this.label = label;
+            this.children = children;
+            this.terminal = terminal;
+            this.top = top(terminal, children);
+        }
+
+        private Node withLabel(String newLabel) {
+            return new Node(newLabel, children, terminal);
+        }
+    }
+
+    private static final SuggestionTrie EMPTY = new SuggestionTrie(null);
+
+    private final Node root;
+
+    private SuggestionTrie(Node root) {
+        this.root = root;
+    }
+
+    // popularity: unidades vendidas por producto (los que no aparecen cuentan 0)
+    public static SuggestionTrie of(Collection<ProductDTO> products, Map<UUID, Long> popularity) {
+        List<Entry> entries = new ArrayList<>();
+        for (ProductDTO product : products) {
+            entries.addAll(entries(product, popularity));
+        }
+        if (entries.isEmpty()) {
+            return EMPTY;
+        }
+        entries.sort(Comparator.comparing(Entry::key));
+        return new SuggestionTrie(build(entries, 0, entries.size(), 0));
+    }
+
+    // Nuevo trie sin las claves de 'removed' (versión anterior de los productos) y con las de 'added'.
+    // Solo se copian los nodos en el camino de esas claves; el resto se comparte con este trie
+    public SuggestionTrie patch(Collection<ProductDTO> removed, Collection<ProductDTO> added,
+            Map<UUID, Long> popularity) {
+        Node patched = root;
+        for (ProductDTO product : removed) {
+            for (Entry entry : entries(product, Map.of())) {
+                if (patched != null) {
+                    patched = remove(patched, entry.key(), entry.productId(), 0);
+                }
+            }
+        }
+        for (ProductDTO product : added) {
+            for (Entry entry : entries(product, popularity)) {
+                patched = patched == null ? leaf(entry.key(), entry) : insert(patched, entry, 0);
+            }
+        }
+        return patched == null ? EMPTY : new SuggestionTrie(patched);
+    }
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String query = String.join(" ", SEPARATORS.split(SearchText.normalize(prefix).strip()));
+        if (root == null || query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Node node = root;
+        int position = 0;
+        while (true) {
+            int length = Math.min(node.label.length(), query.length() - position);
+            if (!node.label.regionMatches(0, query, position, length)) {
+                return List.of();
+            }
+            position += length;
+            if (position == query.length()) {
+                return Arrays.stream(node.top)
+                        .limit(limit)
+                        .map(Entry::suggestion)
+                        .toList();
+            }
+            node = child(node, query.charAt(position));
+            if (node == null) {
+                return List.of();
+            }
+        }
+    }
+
+    // Una entrada por palabra del nombre, con la clave desde esa palabra hasta el final
+    private static List<Entry> entries(ProductDTO product, Map<UUID, Long> popularity) {
+        ProductSuggestionDTO suggestion = new ProductSuggestionDTO(
+                product.getName(), product.getSlug(), product.getThumbnail());
+        long weight = popularity.getOrDefault(product.getId(), 0L);
+        String[] words = SEPARATORS.split(SearchText.normalize(product.getName()).strip());
+        List<Entry> entries = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            String key = String.join(" ", Arrays.asList(words).subList(i, words.length));
+            if (!key.isBlank()) {
+                entries.add(new Entry(key, product.getId(), suggestion, weight));
+            }
+        }
+        return entries;
+    }
+
+    // entries[lo, hi) está ordenado y comparte los primeros 'depth' caracteres
+    private static Node build(List<Entry> entries, int lo, int hi, int depth) {
+        String first = entries.get(lo).key();
+        String last = entries.get(hi - 1).key();
+        int end = depth;
+        while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+            end++;
+        }
+
+        List<Entry> terminal = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        int i = lo;
+        // Las claves que terminan aquí van primero en el orden lexicográfico
+        while (i < hi && entries.get(i).key().length() == end) {
+            terminal.add(entries.get(i++));
+        }
+        while (i < hi) {
+            char c = entries.get(i).key().charAt(end);
+            int j = i;
+            while (j < hi && entries.get(j).key().charAt(end) == c) {
+                j++;
+            }
+            children.add(build(entries, i, j, end));
+            i = j;
+        }
+        return new Node(first.substring(depth, end), children.toArray(NO_CHILDREN), terminal.toArray(NO_ENTRIES));
+    }
+
+    private static Node leaf(String label, Entry entry) {
+        return new Node(label, NO_CHILDREN, new Entry[] { entry });
+    }
+
+    // El nodo empieza en key[depth]; devuelve su copia con la entrada añadida
+    private static Node insert(Node node, Entry entry, int depth) {
+        String key = entry.key();
+        String label = node.label;
+        int common = 0;
+        while (common < label.length() && depth + common < key.length()
+                && label.charAt(common) == key.charAt(depth + common)) {
+            common++;
+        }
+        int end = depth + common;
+        if (common < label.length()) {
+            // La clave se separa a mitad de la etiqueta: nodo intermedio con el prefijo común
+            Node tail = node.withLabel(label.substring(common));
+            if (end == key.length()) {
+                return new Node(label.substring(0, common), new Node[] { tail }, new Entry[] { entry });
+            }
+            Node branch = leaf(key.substring(end), entry);
+            Node[] children = tail.label.charAt(0) < branch.label.charAt(0)
+                    ? new Node[] { tail, branch }
+                    : new Node[] { branch, tail };
+            return new Node(label.substring(0, common), children, NO_ENTRIES);
+        }
+        if (end == key.length()) {
+            Entry[] terminal = Arrays.copyOf(node.terminal, node.terminal.length + 1);
+            terminal[node.terminal.length] = entry;
+            return new Node(label, node.children, terminal);
+        }
+        int index = childIndex(node, key.charAt(end));
+        if (index >= 0) {
+            Node[] children = node.children.clone();
+            children[index] = insert(children[index], entry, end);
+            return new Node(label, children, node.terminal);
+        }
+        int at = -index - 1;
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, at);
+        children[at] = leaf(key.substring(end), entry);
+        System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+        return new Node(label, children, node.terminal);
+    }
+
+    // El nodo empieza en key[depth]; devuelve su copia sin las entradas del producto para esa clave
+    // (null si queda vacío). Un nodo sin entradas propias y con un solo hijo se fusiona con él
+    private static Node remove(Node node, String key, UUID productId, int depth) {
+        String label = node.label;
+        if (!key.startsWith(label, depth)) {
+            return node;
+        }
+        int end = depth + label.length();
+        Entry[] terminal = node.terminal;
+        Node[] children = node.children;
+        if (end == key.length()) {
+            terminal = Arrays.stream(terminal)
+                    .filter(e -> !e.productId().equals(productId))
+                    .toArray(Entry[]::new);
+            if (terminal.length == node.terminal.length) {
+                return node;
+            }
+        } else {
+            int index = end < key.length() ? childIndex(node, key.charAt(end)) : -1;
+            if (index < 0) {
+                return node;
+            }
+            Node child = remove(children[index], key, productId, end);
+            if (child == children[index]) {
+                return node;
+            }
+            if (child == null) {
+                children = new Node[children.length - 1];
+                System.arraycopy(node.children, 0, children, 0, index);
+                System.arraycopy(node.children, index + 1, children, index, children.length - index);
+            } else {
+                children = children.clone();
+                children[index] = child;
+            }
+        }
+        if (terminal.length == 0 && children.length == 0) {
+            return null;
+        }
+        if (terminal.length == 0 && children.length == 1) {
+            return children[0].withLabel(label + children[0].label);
+        }
+        return new Node(label, children, terminal);
+    }
+
+    // Las mejores TOP_K sugerencias del subárbol: las claves que terminan en el nodo más las mejores
+    // de cada hijo, sin repetir producto (un producto aparece bajo varias claves, una por palabra)
+    private static Entry[] top(Entry[] terminal, Node[] children) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(terminal));
+        for (Node child : children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(BY_WEIGHT);
+        Set<UUID> seen = new HashSet<>();
+        List<Entry> top = new ArrayList<>(TOP_K);
+        for (Entry candidate : candidates) {
+            if (top.size() == TOP_K) {
+                break;
+            }
+            if (seen.add(candidate.productId())) {
+                top.add(candidate);
+            }
+        }
+        return top.toArray(NO_ENTRIES);
+    }
+
+    private static Node child(Node node, char c) {
+        int index = childIndex(node, c);
+        return index >= 0 ? node.children[index] : null;
+    }
+
+    // Posición del hijo que empieza por c, o (-(punto de inserción) - 1) si no existe
+    private static int childIndex(Node node, char c) {
+        int lo = 0;
+        int hi = node.children.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char first = node.children[mid].label.charAt(0);
+            if (first < c) {
+                lo = mid + 1;
+            } else if (first > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+}
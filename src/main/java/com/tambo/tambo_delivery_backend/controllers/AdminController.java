@@ -2,11 +2,13 @@ package com.tambo.tambo_delivery_backend.controllers;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -21,10 +23,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tambo.tambo_delivery_backend.auth.dto.request.CreateRoleDto;
+import com.tambo.tambo_delivery_backend.auth.dto.response.PasswordHashingStatsDTO;
 import com.tambo.tambo_delivery_backend.auth.dto.response.ResponseDto;
 import com.tambo.tambo_delivery_backend.auth.dto.response.UserDetailsDto;
 import com.tambo.tambo_delivery_backend.auth.entities.Authority;
 import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.helper.BoundedPasswordEncoder;
 import com.tambo.tambo_delivery_backend.auth.services.AuthorityService;
 import com.tambo.tambo_delivery_backend.auth.services.UserService;
 import com.tambo.tambo_delivery_backend.dto.request.BrandRequest;
@@ -39,9 +43,17 @@ import com.tambo.tambo_delivery_backend.dto.response.CategoryDTO;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryTypeDTO;
 import com.tambo.tambo_delivery_backend.dto.response.DiscountDTO;
 import com.tambo.tambo_delivery_backend.dto.response.OrderDetails;
+import com.tambo.tambo_delivery_backend.dto.response.OrderPageDTO;
 import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductPageDTO;
 import com.tambo.tambo_delivery_backend.dto.response.ProductSectionDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ReceiptQueueStatsDTO;
 import com.tambo.tambo_delivery_backend.dto.response.SliderImageDTO;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.exceptions.PasswordHashingBusyEx;
+import com.tambo.tambo_delivery_backend.receipts.ReceiptOutboxService;
 import com.tambo.tambo_delivery_backend.services.AppConfigService;
 import com.tambo.tambo_delivery_backend.services.BrandService;
 import com.tambo.tambo_delivery_backend.services.CategoryService;
@@ -84,6 +96,12 @@ public class AdminController {
     @Autowired
     private AppConfigService configService;
 
+    @Autowired
+    private ReceiptOutboxService receiptOutboxService;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
     // ------------------------------ BRAND -----------------------------
 
     // Obtener a todos las marcas
@@ -488,6 +506,32 @@ public class AdminController {
 
     }
 
+    // Buscar productos por filtros con paginación por cursor
+    @GetMapping("/product/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID typeId,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean newArrival,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer size) {
+
+        try {
+            ProductPageDTO page = productService.searchProducts(categoryId, typeId, name, minPrice, maxPrice, active,
+                    newArrival, cursor, size);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al buscar los productos: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+
+    }
+
     // Obtener un producto por id
     @GetMapping("/product/{id}")
     public ResponseEntity<?> getProductById(@PathVariable UUID id) {
@@ -805,6 +849,9 @@ public class AdminController {
                     .message("Usuario creado: " + created.getEmail())
                     .build();
             return new ResponseEntity<>(res, HttpStatus.CREATED);
+        } catch (PasswordHashingBusyEx e) {
+            // 503 con Retry-After (PasswordHashingBusyHandler)
+            throw e;
         } catch (RuntimeException e) {
             String errorMessage = e.getMessage();
             
@@ -957,4 +1004,40 @@ public class AdminController {
         }
 
     }
+
+    // Buscar órdenes por filtros con paginación por cursor (más recientes primero)
+    @GetMapping("/orders/search")
+    public ResponseEntity<?> searchOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            @RequestParam(required = false) ReceiptType receiptType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer size) {
+
+        try {
+            OrderPageDTO page = orderService.searchOrders(status, from, to, userId, paymentMethod, receiptType,
+                    cursor, size);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al buscar las órdenes: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Estado de la cola de comprobantes (pendientes, enviados, descartados y carga del pool)
+    @GetMapping("/orders/receipts/stats")
+    public ReceiptQueueStatsDTO getReceiptQueueStats() {
+        return receiptOutboxService.getStats();
+    }
+
+    // Pool de hashing de contraseñas: carga, rechazos (503) y latencia por operación
+    @GetMapping("/auth/password-hashing/stats")
+    public PasswordHashingStatsDTO getPasswordHashingStats() {
+        return passwordEncoder.getStats();
+    }
 }
@@ -10,10 +10,15 @@ import com.tambo.tambo_delivery_backend.auth.dto.response.OrderResponse;
 import com.tambo.tambo_delivery_backend.dto.request.OrderRequest;
 import com.tambo.tambo_delivery_backend.dto.response.OrderDetails;
 import com.tambo.tambo_delivery_backend.services.OrderService;
-import com.tambo.tambo_delivery_backend.entities.Order;
-import com.tambo.tambo_delivery_backend.services.BoletaPdfService;
-import com.tambo.tambo_delivery_backend.services.FacturaPdfService;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.receipts.ReceiptDocuments;
+import com.tambo.tambo_delivery_backend.receipts.ReceiptDocuments.ReceiptDownload;
+import com.tambo.tambo_delivery_backend.receipts.ReceiptFileSender;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.security.Principal;
 import java.util.List;
 import java.util.UUID;
@@ -27,10 +32,7 @@ public class OrderController {
     OrderService orderService;
 
     @Autowired
-    private BoletaPdfService boletaPdfService;
-
-    @Autowired
-    private FacturaPdfService facturaPdfService;
+    private ReceiptDocuments receiptDocuments;
 
     @PostMapping
     public ResponseEntity<?> createOrder(@RequestBody OrderRequest orderRequest, Principal principal) throws Exception {
@@ -40,43 +42,31 @@ public class OrderController {
 
     // Endpoint para descargar boleta PDF
     @GetMapping("/{orderId}/boleta")
-    public ResponseEntity<byte[]> descargarBoleta(@PathVariable UUID orderId) {
-        try {
-            Order order = orderService.getOrderById(orderId);
-            if (order == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            byte[] pdf = boletaPdfService.generateBoletaPdf(order);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=boleta_tambo.pdf")
-                    .header(HttpHeaders.CONTENT_TYPE, "application/pdf")
-                    .body(pdf);
-
-        } catch (Exception e) {
-            return ResponseEntity.status(500).build();
-        }
+    public void descargarBoleta(@PathVariable UUID orderId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        descargar(orderId, ReceiptType.BOLETA, "boleta_tambo.pdf", request, response);
     }
 
     // Endpoint para descargar factura PDF
     @GetMapping("/{orderId}/factura")
-    public ResponseEntity<byte[]> descargarFactura(@PathVariable UUID orderId) {
-        try {
-            Order order = orderService.getOrderById(orderId);
-            if (order == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            byte[] pdf = facturaPdfService.generateFacturaPdf(order);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=factura_tambo.pdf")
-                    .header(HttpHeaders.CONTENT_TYPE, "application/pdf")
-                    .body(pdf);
+    public void descargarFactura(@PathVariable UUID orderId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        descargar(orderId, ReceiptType.FACTURA, "factura_tambo.pdf", request, response);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(500).build();
+    // Los comprobantes de órdenes pagadas se sirven desde disco (ETag y rangos); el resto es un
+    // borrador generado en la petición
+    private void descargar(UUID orderId, ReceiptType type, String filename, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        ReceiptDownload download = receiptDocuments.download(orderId, type);
+        if (download.stored() != null) {
+            ReceiptFileSender.send(request, response, download.stored(), filename);
+            return;
         }
+        response.setContentType("application/pdf");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentLength(download.draft().length);
+        response.getOutputStream().write(download.draft());
     }
 }
@@ -1,13 +1,15 @@
 package com.tambo.tambo_delivery_backend.controllers;
 
-import com.tambo.tambo_delivery_backend.entities.OrderStatus;
-import com.tambo.tambo_delivery_backend.services.OrderService;
-import com.tambo.tambo_delivery_backend.services.PayPalService;
-import com.paypal.orders.Order;
+import com.tambo.tambo_delivery_backend.exceptions.PaymentGatewayUnavailableEx;
+import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.payments.PaymentConfirmationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.Map;
 import java.util.UUID;
 
@@ -16,53 +18,65 @@ import java.util.UUID;
 @RequestMapping("/api/payment")
 public class PaymentController {
 
-    private final PayPalService paypalService;
-    private final OrderService orderService;
+    private final PaymentConfirmationService paymentConfirmationService;
 
-    public PaymentController(PayPalService paypalService, OrderService orderService) {
-        this.paypalService = paypalService;
-        this.orderService = orderService;
+    public PaymentController(PaymentConfirmationService paymentConfirmationService) {
+        this.paymentConfirmationService = paymentConfirmationService;
+    }
+
+    // Llamado por el cliente al crear la orden en PayPal, antes de que el comprador la apruebe
+    @PostMapping("/paypal/register-order")
+    public ResponseEntity<?> registerPaypalOrder(Principal principal, @RequestBody Map<String, String> request) {
+        String orderIdStr = request.get("orderId");
+        String paypalOrderId = request.get("paypalOrderId");
+        if (orderIdStr == null || paypalOrderId == null || paypalOrderId.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "orderId y paypalOrderId son obligatorios"));
+        }
+        try {
+            paymentConfirmationService.registerProviderOrder(UUID.fromString(orderIdStr), paypalOrderId,
+                    principal.getName());
+            return ResponseEntity.ok(Map.of("status", "success"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "ID de orden inválido"));
+        } catch (ResourceNotFoundEx e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()));
+        }
     }
 
     @PostMapping("/paypal/confirm-payment")
-    public ResponseEntity<?> capturePayment(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> capturePayment(Principal principal, @RequestBody Map<String, String> request) {
         try {
             String orderIdStr = request.get("orderId");
             String paypalOrderId = request.get("paypalOrderId");
 
             UUID orderId = UUID.fromString(orderIdStr);
 
-            // 1. Verificar si la orden ya fue procesada
-            com.tambo.tambo_delivery_backend.entities.Order existingOrder = orderService.getOrderById(orderId);
-            if (existingOrder.getOrderStatus() == OrderStatus.PAID) {
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "message", "La orden ya estaba pagada"));
-            }
-
-            // 1. Capturar pago con PayPal
-            Order paypalOrder = paypalService.captureOrder(paypalOrderId);
-
-            // 3. Validar estado
-            if (!"COMPLETED".equals(paypalOrder.status())) {
-                throw new RuntimeException("El pago no se completó. Estado: " + paypalOrder.status());
-            }
-
-            // 2. Actualizar orden
-            orderService.updateOrderStatus(
-                    orderId,
-                    OrderStatus.PAID,
-                    paypalOrder.id());
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "transactionId", paypalOrder.id()));
+            // Idempotente: reintentos y dobles clics reciben el mismo resultado sin volver a capturar
+            return ResponseEntity.ok(paymentConfirmationService.confirm(orderId, paypalOrderId, principal.getName())
+                    .toResponse());
 
         } catch (IllegalArgumentException e) {
             log.error("ID de orden inválido", e);
             return ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
                     "message", "ID de orden inválido"));
+        } catch (ResourceNotFoundEx e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage()));
+        } catch (PaymentGatewayUnavailableEx e) {
+            // Rechazo inmediato del bulkhead o del cortocircuito; el cliente puede reintentar
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of(
+                            "status", "error",
+                            "message", e.getMessage()));
         } catch (Exception e) {
             log.error("Error al procesar pago", e);
             return ResponseEntity.internalServerError().body(Map.of(
@@ -7,6 +7,7 @@ import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,12 +16,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.tambo.tambo_delivery_backend.auth.dto.response.ResponseDto;
+import com.tambo.tambo_delivery_backend.catalog.CatalogQuery;
+import com.tambo.tambo_delivery_backend.catalog.CatalogSort;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalog;
+import com.tambo.tambo_delivery_backend.catalog.SuggestionTrie;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryDTO;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryTypeDTO;
+import com.tambo.tambo_delivery_backend.dto.response.HomeDTO;
 import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductFacetsDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductPageDTO;
 import com.tambo.tambo_delivery_backend.dto.response.ProductSectionDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSuggestionDTO;
+import com.tambo.tambo_delivery_backend.home.HomeService;
 import com.tambo.tambo_delivery_backend.services.AppConfigService;
 import com.tambo.tambo_delivery_backend.services.CategoryService;
 import com.tambo.tambo_delivery_backend.services.CategoryTypeService;
@@ -45,29 +56,77 @@ public class PublicController {
     @Autowired
     private CategoryTypeService categoryTypeService;
 
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private HomeService homeService;
+
+    // ------------------------------ HOME -----------------------------
+
+    // Home completo (slider, botones de categoría y secciones con productos) en una sola llamada.
+    // Responde 304 si el cliente ya tiene la versión actual (If-None-Match, también con ETag débil
+    // o lista de ETags)
+    @GetMapping("/home")
+    public ResponseEntity<?> getHome(WebRequest request) {
+        try {
+            HomeDTO home = homeService.getHome();
+            String etag = "\"" + home.getVersion() + "\"";
+            if (request.checkNotModified(etag)) {
+                // checkNotModified ya dejó el 304 y el ETag en la respuesta
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(home);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al obtener el home: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // ------------------------------ PRODUCT -----------------------------
 
-    // Obtener todos los productos por filtros
+    // Obtener todos los productos por filtros. name es una búsqueda por palabras (nombre, descripción,
+    // marca y categoría; deben aparecer todas, con tolerancia a tildes y erratas). Si name solo
+    // tiene palabras vacías ("de", "la"...) se filtra por subcadena del nombre
     @GetMapping("/product")
     public ResponseEntity<?> getAllProducts(
             @RequestParam(required = false) UUID categoryId,
             @RequestParam(required = false) UUID typeId,
+            @RequestParam(required = false) UUID brandId,
             @RequestParam(required = false) String slug,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Boolean newArrival,
+            @RequestParam(required = false) Boolean onDiscount,
+            @RequestParam(required = false) CatalogSort sort,
             HttpServletResponse response) {
 
         try {
             List<ProductDTO> productList = new ArrayList<>();
 
+            // Se sirve desde el catálogo en memoria; solo los productos inactivos consultan la BD
             if (StringUtils.isNotBlank(slug)) {
-                ProductDTO productDto = productService.getProductBySlug(slug);
+                ProductDTO productDto = productCatalog.findBySlug(slug)
+                        .orElseGet(() -> productService.getProductBySlug(slug));
                 productList.add(productDto);
             } else {
-                productList = productService.getAllProducts(categoryId, typeId, name, minPrice, maxPrice, true,
-                        newArrival);
+                productList = productCatalog.query(CatalogQuery.builder()
+                        .categoryId(categoryId)
+                        .typeId(typeId)
+                        .brandId(brandId)
+                        .name(name)
+                        .minPrice(minPrice)
+                        .maxPrice(maxPrice)
+                        .newArrival(newArrival)
+                        .onDiscount(onDiscount)
+                        .sort(sort)
+                        .build());
             }
             return new ResponseEntity<>(productList, HttpStatus.OK);
 
@@ -80,14 +139,89 @@ public class PublicController {
 
     }
 
+    // Conteos por faceta para los mismos filtros de /product
+    @GetMapping("/product/facets")
+    public ResponseEntity<?> getProductFacets(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID typeId,
+            @RequestParam(required = false) UUID brandId,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean newArrival,
+            @RequestParam(required = false) Boolean onDiscount) {
+        try {
+            ProductFacetsDTO facets = productCatalog.facets(CatalogQuery.builder()
+                    .categoryId(categoryId)
+                    .typeId(typeId)
+                    .brandId(brandId)
+                    .name(name)
+                    .minPrice(minPrice)
+                    .maxPrice(maxPrice)
+                    .newArrival(newArrival)
+                    .onDiscount(onDiscount)
+                    .build());
+            return new ResponseEntity<>(facets, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al obtener los filtros: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Autocompletado del buscador: nombre y slug de los productos más vendidos para el prefijo
+    @GetMapping("/product/suggest")
+    public ResponseEntity<?> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            List<ProductSuggestionDTO> suggestions = productCatalog.suggest(q,
+                    Math.min(limit, SuggestionTrie.TOP_K));
+            return new ResponseEntity<>(suggestions, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al obtener las sugerencias: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Buscar productos por filtros con paginación por cursor
+    @GetMapping("/product/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID typeId,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean newArrival,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") Integer size) {
+
+        try {
+            ProductPageDTO page = productService.searchProducts(categoryId, typeId, name, minPrice, maxPrice, true,
+                    newArrival, cursor, size);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            ResponseDto res = ResponseDto.builder()
+                    .message("Error al buscar los productos: " + e.getMessage())
+                    .build();
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // ------------------------------ PRODUCT SECTIONS ----------------------------
 
-    // Obtener las secciones de categorias
+    // Obtener las secciones de categorias (con withProducts=true incluye los productos de cada sección)
     @GetMapping("/product-sections")
-    public ResponseEntity<?> getAllProductSections() {
+    public ResponseEntity<?> getAllProductSections(
+            @RequestParam(defaultValue = "false") boolean withProducts) {
 
         try {
-            List<ProductSectionDTO> prod = configService.getProductSections();
+            List<ProductSectionDTO> prod = withProducts
+                    ? configService.getProductSectionsWithProducts()
+                    : configService.getProductSections();
             return new ResponseEntity<>(prod, HttpStatus.OK);
         } catch (RuntimeException e) {
             ResponseDto res = ResponseDto.builder()
@@ -150,15 +284,13 @@ public class PublicController {
             @RequestParam(defaultValue = "6") Integer limit) {
         
         try {
-            List<ProductDTO> products = productService.getAllProducts(
-                categoryId, null, null, null, null, true, null
-            );
-            
+            CatalogQuery query = CatalogQuery.builder().categoryId(categoryId).build();
+
             // Limitar la cantidad de productos si se especifica
-            if (limit != null && limit > 0 && products.size() > limit) {
-                products = products.subList(0, limit);
-            }
-            
+            List<ProductDTO> products = limit != null && limit > 0
+                    ? productCatalog.query(query, limit)
+                    : productCatalog.query(query);
+
             return new ResponseEntity<>(products, HttpStatus.OK);
         } catch (RuntimeException e) {
             ResponseDto res = ResponseDto.builder()
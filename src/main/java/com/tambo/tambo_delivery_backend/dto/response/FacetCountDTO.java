@@ -0,0 +1,16 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDTO {
+    private String key; // id de la categoría/tipo/marca o rango de precio ("10-20")
+    private String label;
+    private long count;
+}
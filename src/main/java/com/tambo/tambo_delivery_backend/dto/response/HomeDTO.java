@@ -0,0 +1,19 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HomeDTO {
+    private List<SliderImageDTO> sliders;
+    private List<CategoryButtonDTO> categoryButtons;
+    private List<ProductSectionDTO> sections; // con sus productos (maxProducts por sección)
+    private String version;
+}
@@ -2,8 +2,6 @@ package com.tambo.tambo_delivery_backend.dto.response;
 
 import java.util.UUID;
 
-import com.tambo.tambo_delivery_backend.entities.Product;
-
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +14,10 @@ import lombok.NoArgsConstructor;
 public class OrderItemDetail {
 
     private UUID id;
-    private Product product;
+    // Datos del producto copiados en la línea al comprar
+    private UUID productId;
+    private String productName;
+    private String productThumbnail;
     private Integer quantity;
     private Double itemPrice;
 }
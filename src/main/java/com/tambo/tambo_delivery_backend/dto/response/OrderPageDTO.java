@@ -0,0 +1,18 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPageDTO {
+    private List<OrderDetails> items;
+    private String nextCursor; // null cuando no hay más resultados
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Conteos por faceta para una búsqueda. Cada faceta se cuenta con el resto de filtros aplicados
+// (sin el suyo), para que el cliente pueda mostrar las alternativas de esa faceta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+    private long total;
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> categoryTypes;
+    private List<FacetCountDTO> brands;
+    private List<FacetCountDTO> priceRanges;
+    private long newArrival;
+    private long onDiscount;
+}
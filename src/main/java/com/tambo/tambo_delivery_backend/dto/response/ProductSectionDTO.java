@@ -3,6 +3,8 @@ package com.tambo.tambo_delivery_backend.dto.response;
 // com.tambo.tambo_delivery_backend.dto.ProductSectionDTO
 
 import lombok.Data;
+
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -11,4 +13,5 @@ public class ProductSectionDTO {
     private UUID categoryId;
     private Integer maxProducts;
     private Integer position;
+    private List<ProductDTO> products; // solo en el home (secciones con productos)
 }
@@ -0,0 +1,16 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSuggestionDTO {
+    private String name;
+    private String slug;
+    private String thumbnail;
+}
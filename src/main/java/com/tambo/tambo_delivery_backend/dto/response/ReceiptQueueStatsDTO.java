@@ -0,0 +1,21 @@
+package com.tambo.tambo_delivery_backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptQueueStatsDTO {
+    private long pending;
+    private long sent;
+    private long failed;
+    // Antigüedad del comprobante pendiente más antiguo
+    private long oldestPendingSeconds;
+    // Comprobantes procesándose y esperando en la cola del pool
+    private int inFlight;
+    private int queued;
+}
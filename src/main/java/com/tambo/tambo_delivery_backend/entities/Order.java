@@ -10,7 +10,14 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Listado del admin: orden por (orderDate, id) y un índice por cada filtro habitual
+        @Index(name = "idx_orders_date", columnList = "orderDate, id"),
+        @Index(name = "idx_orders_status_date", columnList = "orderStatus, orderDate, id"),
+        @Index(name = "idx_orders_user_date", columnList = "user_id, orderDate, id"),
+        @Index(name = "idx_orders_payment_date", columnList = "paymentMethod, orderDate, id"),
+        @Index(name = "idx_orders_receipt_date", columnList = "receiptType, orderDate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -93,4 +100,8 @@ public class Order {
     @Column(nullable = true)
     private String razonSocial;
 
+    // true mientras la orden tiene stock descontado (desde la creación hasta su cancelación)
+    @Builder.Default
+    private boolean stockReserved = false;
+
 }
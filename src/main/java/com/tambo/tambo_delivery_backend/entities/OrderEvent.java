@@ -0,0 +1,70 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Evento del ciclo de vida de una orden. Se inserta en la misma transacción que el cambio de
+// estado y OrderEventDispatcher lo entrega después a los suscriptores.
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_pending", columnList = "status, id"),
+        @Index(name = "idx_order_events_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    // Autoincremental: da el orden de entrega y permite leer la cola por rangos
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // orderId:sequence; los suscriptores lo usan para no aplicar dos veces el mismo evento
+    @Column(nullable = false, unique = true, length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private UUID orderId;
+
+    // Posición del evento dentro de la orden (1, 2, ...)
+    @Column(nullable = false)
+    private int sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderEventType type;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus toStatus;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private OrderEventStatus status = OrderEventStatus.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    // Instancia que lo tiene reservado y hasta cuándo
+    @Column(length = 64)
+    private String claimedBy;
+
+    private Instant leaseUntil;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private Instant publishedAt;
+}
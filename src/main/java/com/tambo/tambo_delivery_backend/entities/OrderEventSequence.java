@@ -0,0 +1,23 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Último número de evento asignado a cada orden. No se purga con los eventos publicados,
+// así una clave orderId:sequence nunca se repite.
+@Entity
+@Table(name = "order_event_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEventSequence {
+
+    @Id
+    private UUID orderId;
+
+    @Column(nullable = false)
+    private int lastSequence;
+}
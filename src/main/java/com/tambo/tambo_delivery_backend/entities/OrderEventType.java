@@ -0,0 +1,6 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+public enum OrderEventType {
+    CREATED,
+    STATUS_CHANGED
+}
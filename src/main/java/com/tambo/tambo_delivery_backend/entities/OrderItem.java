@@ -18,7 +18,8 @@ public class OrderItem {
     @GeneratedValue
     private UUID id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Perezoso: los listados y comprobantes usan la copia del producto guardada en la línea
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @JsonIgnore
     private Product product;
@@ -33,4 +34,9 @@ public class OrderItem {
     private Integer quantity;
 
     private Double itemPrice;
+
+    // Copia del producto al momento de la compra: la ficha puede cambiar después
+    private String productName;
+
+    private String productThumbnail;
 }
@@ -8,7 +8,10 @@ import java.util.Date;
 import java.util.UUID;
 
 @Entity
-@Table(name = "payment")
+// Índice para la conciliación: pagos pendientes recorridos por fecha (keyset)
+@Table(name = "payment", indexes = {
+        @Index(name = "idx_payment_status_date", columnList = "paymentStatus, paymentDate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +38,10 @@ public class Payment {
     @Column(nullable = true)
     private String transactionId;
 
+    // Id de la orden en el proveedor (PayPal), registrado antes de capturar para poder conciliar
+    @Column(nullable = true)
+    private String providerOrderId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private PaymentMethod paymentMethod;
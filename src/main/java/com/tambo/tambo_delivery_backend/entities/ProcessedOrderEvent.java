@@ -0,0 +1,32 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Marca de que un suscriptor ya aplicó un evento; se guarda en la misma transacción que su efecto
+@Entity
+@Table(name = "processed_order_events", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_processed_order_event", columnNames = { "subscriber", "idempotency_key" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedOrderEvent {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    private String subscriber;
+
+    @Column(nullable = false, length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Instant processedAt;
+}
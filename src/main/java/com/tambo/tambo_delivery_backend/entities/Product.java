@@ -7,12 +7,21 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.BatchSize;
+
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Índices compuestos alineados con los filtros de búsqueda y el orden keyset (createdAt, id)
+        @Index(name = "idx_products_active_created", columnList = "isActive, createdAt, id"),
+        @Index(name = "idx_products_category_active_created", columnList = "category_id, isActive, createdAt, id"),
+        @Index(name = "idx_products_type_active_created", columnList = "categoryType_id, isActive, createdAt, id"),
+        @Index(name = "idx_products_active_new_created", columnList = "isActive, isNewArrival, createdAt, id"),
+        @Index(name = "idx_products_active_price", columnList = "isActive, price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,6 +63,11 @@ public class Product {
     @Builder.Default
     private boolean isActive = true;
 
+    // Desactivado por la reserva al agotarse el stock (no por el administrador): al liberar stock
+    // vuelve a activarse
+    @Column(nullable = false)
+    private boolean autoDeactivated;
+
     @Column(nullable = false, updatable = false)
     @Temporal(TemporalType.TIMESTAMP)
     private java.util.Date createdAt;
@@ -73,9 +87,11 @@ public class Product {
     private CategoryType categoryType;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<Resources> resources;
 
     @ManyToMany(mappedBy = "products")
+    @BatchSize(size = 100)
     @JsonIgnore
     private List<Discount> discounts;
 
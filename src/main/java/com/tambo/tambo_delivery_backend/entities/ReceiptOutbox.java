@@ -0,0 +1,52 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Comprobante pendiente de generar y enviar por correo. Se escribe en la misma transacción que
+// marca la orden como pagada y lo procesa ReceiptDispatcher fuera de la petición.
+@Entity
+@Table(name = "receipt_outbox", indexes = {
+        @Index(name = "idx_receipt_outbox_due", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReceiptOutbox {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    // Un único comprobante por orden
+    @Column(nullable = false, unique = true)
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReceiptType receiptType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ReceiptOutboxStatus status = ReceiptOutboxStatus.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    // Próximo intento; mientras un worker lo procesa funciona como plazo de la reserva
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+}
@@ -0,0 +1,7 @@
+package com.tambo.tambo_delivery_backend.entities;
+
+public enum ReceiptOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,11 @@
+package com.tambo.tambo_delivery_backend.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidOrderEx extends RuntimeException {
+    public InvalidOrderEx(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,22 @@
+package com.tambo.tambo_delivery_backend.exceptions;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Pool de hashing de contraseñas saturado (login, registro, cambio de contraseña o alta desde el
+// admin): 503 con Retry-After en cualquier controlador
+@RestControllerAdvice
+public class PasswordHashingBusyHandler {
+
+    @ExceptionHandler(PasswordHashingBusyEx.class)
+    public ResponseEntity<Map<String, String>> passwordHashingBusy(PasswordHashingBusyEx e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(Map.of("message", e.getMessage()));
+    }
+}
@@ -0,0 +1,5 @@
+package com.tambo.tambo_delivery_backend.home;
+
+// Se publica cuando cambia la configuración del home (slider, botones o secciones)
+public record HomeConfigChangedEvent() {
+}
@@ -0,0 +1,109 @@
+package com.tambo.tambo_delivery_backend.home;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalog;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
+import com.tambo.tambo_delivery_backend.dto.response.CategoryButtonDTO;
+import com.tambo.tambo_delivery_backend.dto.response.HomeDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSectionDTO;
+import com.tambo.tambo_delivery_backend.dto.response.SliderImageDTO;
+import com.tambo.tambo_delivery_backend.services.AppConfigService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Arma la respuesta completa del home en una sola llamada. Las cargas independientes se
+// ejecutan en paralelo sobre hilos virtuales y el resultado se guarda hasta que cambie el
+// catálogo o la configuración del home; la versión se usa como ETag.
+@Slf4j
+@Service
+public class HomeService {
+
+    private final AppConfigService configService;
+    private final ProductCatalog productCatalog;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Distingue las versiones entre reinicios (los contadores vuelven a empezar)
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private final Object buildLock = new Object();
+    private volatile HomeDTO cached;
+
+    public HomeService(AppConfigService configService, ProductCatalog productCatalog) {
+        this.configService = configService;
+        this.productCatalog = productCatalog;
+    }
+
+    public HomeDTO getHome() {
+        String version = currentVersion();
+        HomeDTO home = cached;
+        if (home != null && home.getVersion().equals(version)) {
+            return home;
+        }
+        // Una sola construcción a la vez; el resto espera y reutiliza el resultado
+        synchronized (buildLock) {
+            version = currentVersion();
+            home = cached;
+            if (home == null || !home.getVersion().equals(version)) {
+                home = build(version);
+                cached = home;
+            }
+            return home;
+        }
+    }
+
+    // Tras el commit, para no reconstruir con datos que aún no son visibles
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(HomeConfigChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    // Los productos de las secciones se leen de BD, así que cualquier cambio de catálogo invalida el home
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private HomeDTO build(String version) {
+        CompletableFuture<List<SliderImageDTO>> sliders = CompletableFuture
+                .supplyAsync(configService::getSliderImages, executor);
+        CompletableFuture<List<CategoryButtonDTO>> buttons = CompletableFuture
+                .supplyAsync(configService::getCategoryButtons, executor);
+        CompletableFuture<List<ProductSectionDTO>> sections = CompletableFuture
+                .supplyAsync(configService::getProductSectionsWithProducts, executor);
+
+        try {
+            HomeDTO home = HomeDTO.builder()
+                    .sliders(sliders.join())
+                    .categoryButtons(buttons.join())
+                    .sections(sections.join())
+                    .version(version)
+                    .build();
+            log.debug("Home reconstruido (versión {})", version);
+            return home;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String currentVersion() {
+        return bootId + "-" + productCatalog.current().getVersion() + "-" + changes.get();
+    }
+}
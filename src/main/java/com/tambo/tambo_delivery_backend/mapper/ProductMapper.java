@@ -1,7 +1,6 @@
 package com.tambo.tambo_delivery_backend.mapper;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,7 +21,8 @@ import com.tambo.tambo_delivery_backend.entities.Resources;
 @Component
 public class ProductMapper {
 
-        public static ProductDTO toDTO(Product product) {
+        // Con el porcentaje ya resuelto (DiscountPricingIndex), sin evaluar las fechas de cada descuento
+        public static ProductDTO toDTO(Product product, BigDecimal discountPercentage) {
                 return ProductDTO.builder()
                                 .id(product.getId())
                                 .thumbnail(null != product.getResources() && !product.getResources().isEmpty()
@@ -32,8 +32,8 @@ public class ProductMapper {
                                 .name(product.getName())
                                 .description(product.getDescription())
                                 .price(product.getPrice())
-                                .discountPercentage(getPercentageDiscount(product))
-                                .discountedPrice(calculateDiscountedPrice(product))
+                                .discountPercentage(discountPercentage)
+                                .discountedPrice(applyDiscount(product.getPrice(), discountPercentage))
                                 .stock(product.getStock())
                                 .brand(BrandDTO.builder()
                                                 .id(product.getBrand().getId())
@@ -106,47 +106,21 @@ public class ProductMapper {
         }
 
         // Obtener la miniatura del producto
-        private static String getProductThumbnail(List<Resources> resources) {
+        public static String getProductThumbnail(List<Resources> resources) {
+                if (resources == null) {
+                        return null;
+                }
                 return resources.stream().filter(Resources::getIsPrimary).findFirst().map(Resources::getUrl)
                                 .orElse(null);
         }
 
         // Calcular el precio con descuento
-        private static BigDecimal calculateDiscountedPrice(Product product) {
-                BigDecimal originalPrice = product.getPrice();
-                Discount activeDiscount = product.getDiscounts().stream()
-                                .filter(d -> d.getIsActive() != null && d.getIsActive() 
-                                                && d.getStartDate() != null && !d.getStartDate().isAfter(LocalDate.now())
-                                                && d.getEndDate() != null && !d.getEndDate().isBefore(LocalDate.now()))
-                                .findFirst()
-                                .orElse(null);
-
-                if (activeDiscount == null) {
-                        return originalPrice;
-                }
-
-                if (activeDiscount.getPercentage() != null) {
-                        return originalPrice
-                                        .subtract(originalPrice.multiply(activeDiscount.getPercentage())
-                                                        .divide(BigDecimal.valueOf(100)));
-                } else {
+        public static BigDecimal applyDiscount(BigDecimal originalPrice, BigDecimal percentage) {
+                if (percentage == null || percentage.signum() == 0) {
                         return originalPrice;
                 }
-        }
-
-        // Obtener el porcentaje de descuento
-        private static BigDecimal getPercentageDiscount(Product product) {
-                Discount activeDiscount = product.getDiscounts().stream()
-                                .filter(d -> d.getIsActive() != null && d.getIsActive() 
-                                                && d.getStartDate() != null && !d.getStartDate().isAfter(LocalDate.now())
-                                                && d.getEndDate() != null && !d.getEndDate().isBefore(LocalDate.now()))
-                                .findFirst()
-                                .orElse(null);
-
-                if (activeDiscount == null) {
-                        return BigDecimal.ZERO;
-                }
-
-                return activeDiscount.getPercentage();
+                return originalPrice
+                                .subtract(originalPrice.multiply(percentage)
+                                                .divide(BigDecimal.valueOf(100)));
         }
 }
@@ -0,0 +1,229 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tambo.tambo_delivery_backend.entities.OrderEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderEventStatus;
+import com.tambo.tambo_delivery_backend.entities.ProcessedOrderEvent;
+import com.tambo.tambo_delivery_backend.repositories.OrderEventRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProcessedOrderEventRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Entrega los eventos de order_events a los OrderEventSubscriber, al menos una vez.
+// Cada instancia reserva lotes con una marca (claimedBy + leaseUntil), de modo que varias
+// instancias pueden consumir la misma tabla. Un evento solo se entrega cuando los anteriores
+// de su orden ya se publicaron: uno fallido bloquea los siguientes hasta que se reintente, y
+// uno descartado (FAILED) los bloquea hasta que se vuelva a encolar a mano.
+@Slf4j
+@Component
+public class OrderEventDispatcher {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final Duration RETRY_STEP = Duration.ofSeconds(10);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(10);
+
+    private final OrderEventRepository orderEventRepository;
+    private final ProcessedOrderEventRepository processedRepository;
+    private final List<OrderEventSubscriber> subscribers;
+    private final TransactionTemplate transaction;
+    private final String workerId = UUID.randomUUID().toString();
+    private final Semaphore wakeups = new Semaphore(0);
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final int retentionDays;
+    private final boolean pollerEnabled;
+    private Thread worker;
+
+    public OrderEventDispatcher(OrderEventRepository orderEventRepository,
+            ProcessedOrderEventRepository processedRepository, List<OrderEventSubscriber> subscribers,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.events.batch-size:100}") int batchSize,
+            @Value("${orders.events.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${orders.events.max-attempts:10}") int maxAttempts,
+            @Value("${orders.events.retention-days:7}") int retentionDays,
+            @Value("${orders.events.poller-enabled:true}") boolean pollerEnabled) {
+        this.orderEventRepository = orderEventRepository;
+        this.processedRepository = processedRepository;
+        this.subscribers = List.copyOf(subscribers);
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+        this.pollerEnabled = pollerEnabled;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!pollerEnabled) {
+            log.info("Despachador de eventos de órdenes desactivado en esta instancia");
+            return;
+        }
+        worker = Thread.ofPlatform().daemon().name("order-events").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsAppended(OrderEventsAppended event) {
+        wakeups.release();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                // Con un lote lleno se sigue sin esperar; si no, hasta el siguiente aviso o sondeo
+                if (dispatchBatch() < batchSize) {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeups.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error al despachar eventos de órdenes", e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    // Reserva y entrega un lote; devuelve cuántos eventos reservó
+    public int dispatchBatch() {
+        List<OrderEvent> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> published = new ArrayList<>(batch.size());
+        // Órdenes con un evento anterior pendiente fuera del lote (p. ej. reservado por otra
+        // instancia entre la consulta y la reserva)
+        List<Long> ids = batch.stream().map(OrderEvent::getId).toList();
+        Set<UUID> blockedOrders = new HashSet<>(transaction.execute(status -> orderEventRepository
+                .findOrdersBlockedBefore(ids, OrderEventStatus.PUBLISHED)));
+        for (OrderEvent event : batch) {
+            if (blockedOrders.contains(event.getOrderId())) {
+                // Se reintentará tras el evento anterior de la misma orden, al vencer la reserva
+                continue;
+            }
+            String error = deliver(OrderEventMessage.of(event));
+            if (error == null) {
+                published.add(event.getId());
+            } else {
+                blockedOrders.add(event.getOrderId());
+                transaction.executeWithoutResult(status -> markFailed(event.getId(), error));
+            }
+        }
+        if (!published.isEmpty()) {
+            transaction.executeWithoutResult(status -> orderEventRepository.markPublished(published,
+                    OrderEventStatus.PUBLISHED, Instant.now(), workerId));
+        }
+        return batch.size();
+    }
+
+    private List<OrderEvent> claimBatch() {
+        return transaction.execute(status -> {
+            Instant now = Instant.now();
+            List<Long> ids = orderEventRepository.findClaimableIds(OrderEventStatus.PENDING,
+                    OrderEventStatus.PUBLISHED, now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            // Milisegundos: el valor se compara con el guardado en BD
+            Instant leaseUntil = now.plus(LEASE).truncatedTo(ChronoUnit.MILLIS);
+            if (orderEventRepository.claim(ids, OrderEventStatus.PENDING, now, leaseUntil, workerId) == 0) {
+                return List.of();
+            }
+            return orderEventRepository.findClaimed(ids, OrderEventStatus.PENDING, workerId);
+        });
+    }
+
+    // Entrega el evento a cada suscriptor que aún no lo aplicó; devuelve el error o null
+    private String deliver(OrderEventMessage event) {
+        String error = null;
+        for (OrderEventSubscriber subscriber : subscribers) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    String name = subscriber.subscriberName();
+                    if (processedRepository.existsBySubscriberAndIdempotencyKey(name, event.idempotencyKey())) {
+                        return;
+                    }
+                    subscriber.onOrderEvent(event);
+                    processedRepository.save(ProcessedOrderEvent.builder()
+                            .subscriber(name)
+                            .idempotencyKey(event.idempotencyKey())
+                            .processedAt(Instant.now())
+                            .build());
+                });
+            } catch (RuntimeException e) {
+                log.warn("El suscriptor {} falló con el evento {}: {}", subscriber.subscriberName(),
+                        event.idempotencyKey(), e.getMessage());
+                error = subscriber.subscriberName() + ": " + e.getMessage();
+            }
+        }
+        return error;
+    }
+
+    private void markFailed(Long eventId, String error) {
+        orderEventRepository.findById(eventId).ifPresent(event -> {
+            event.setLastError(StringUtils.abbreviate(error, 500));
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OrderEventStatus.FAILED);
+                log.error("Evento {} descartado tras {} intentos: {}", event.getIdempotencyKey(),
+                        event.getAttempts(), error);
+            } else {
+                Duration delay = RETRY_STEP.multipliedBy(event.getAttempts());
+                event.setLeaseUntil(Instant.now().plus(delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY));
+            }
+        });
+    }
+
+    // Los eventos publicados y sus marcas de idempotencia solo se conservan unos días
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgePublished() {
+        try {
+            Instant before = Instant.now().minus(Duration.ofDays(retentionDays));
+            Integer events = transaction.execute(status -> orderEventRepository
+                    .deletePublishedBefore(OrderEventStatus.PUBLISHED, before));
+            Integer marks = transaction.execute(status -> processedRepository.deleteProcessedBefore(before));
+            log.info("Eventos de órdenes purgados: {} (marcas de idempotencia: {})", events, marks);
+        } catch (RuntimeException e) {
+            log.error("Error al purgar eventos de órdenes", e);
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderEventSequence;
+import com.tambo.tambo_delivery_backend.entities.OrderEventType;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.repositories.OrderEventRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderEventSequenceRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class OrderEventLog {
+
+    private final OrderEventRepository orderEventRepository;
+    private final OrderEventSequenceRepository sequenceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Registra el estado actual de la orden en la transacción del llamador. El contador de la
+    // orden queda bloqueado hasta el commit, así dos transiciones concurrentes toman números
+    // distintos y en el orden en que confirman.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderEvent append(Order order, OrderStatus fromStatus) {
+        int sequence = nextSequence(order.getId());
+        OrderEvent event = orderEventRepository.save(OrderEvent.builder()
+                .idempotencyKey(order.getId() + ":" + sequence)
+                .orderId(order.getId())
+                .sequence(sequence)
+                .type(fromStatus == null ? OrderEventType.CREATED : OrderEventType.STATUS_CHANGED)
+                .fromStatus(fromStatus)
+                .toStatus(order.getOrderStatus())
+                .occurredAt(Instant.now())
+                .build());
+        eventPublisher.publishEvent(new OrderEventsAppended());
+        return event;
+    }
+
+    private int nextSequence(UUID orderId) {
+        if (sequenceRepository.increment(orderId) > 0) {
+            return sequenceRepository.findLastSequence(orderId);
+        }
+        // Primer evento de la orden (o una orden con eventos anteriores al contador)
+        int sequence = orderEventRepository.findMaxSequence(orderId) + 1;
+        sequenceRepository.saveAndFlush(OrderEventSequence.builder()
+                .orderId(orderId)
+                .lastSequence(sequence)
+                .build());
+        return sequence;
+    }
+}
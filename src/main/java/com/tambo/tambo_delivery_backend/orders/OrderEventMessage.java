@@ -0,0 +1,23 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.tambo.tambo_delivery_backend.entities.OrderEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderEventType;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+
+// Vista inmutable de un evento que reciben los suscriptores
+public record OrderEventMessage(long id, String idempotencyKey, UUID orderId, int sequence, OrderEventType type,
+        OrderStatus fromStatus, OrderStatus toStatus, Instant occurredAt) {
+
+    static OrderEventMessage of(OrderEvent event) {
+        return new OrderEventMessage(event.getId(), event.getIdempotencyKey(), event.getOrderId(),
+                event.getSequence(), event.getType(), event.getFromStatus(), event.getToStatus(),
+                event.getOccurredAt());
+    }
+
+    public boolean isTransitionTo(OrderStatus status) {
+        return toStatus == status && fromStatus != status;
+    }
+}
@@ -0,0 +1,12 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+// Consumidor de los eventos de órdenes. Cada evento puede entregarse más de una vez, pero
+// onOrderEvent se ejecuta en una transacción junto con la marca de procesado, así que sus
+// escrituras en BD se aplican una sola vez por idempotencyKey.
+public interface OrderEventSubscriber {
+
+    // Nombre estable: forma parte de la clave de idempotencia guardada en BD
+    String subscriberName();
+
+    void onOrderEvent(OrderEventMessage event);
+}
@@ -0,0 +1,5 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+// Aviso en memoria para que el despachador no espere al siguiente sondeo
+public record OrderEventsAppended() {
+}
@@ -0,0 +1,42 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.math.BigDecimal;
+
+import com.paypal.orders.Capture;
+import com.paypal.orders.Money;
+import com.paypal.orders.PurchaseUnit;
+
+// Comprueba lo capturado en una orden de PayPal contra el total de la orden local. La orden de
+// PayPal la crea el cliente, así que su importe no es de fiar hasta compararlo.
+final class CapturedAmount {
+
+    // Margen por redondeo entre el total guardado (double) y el importe enviado a PayPal
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+
+    private CapturedAmount() {
+    }
+
+    // true si todas las capturas completadas están en `currency` y suman el total de la orden
+    static boolean matches(com.paypal.orders.Order remote, double orderTotal, String currency) {
+        if (remote == null || remote.purchaseUnits() == null) {
+            return false;
+        }
+        BigDecimal captured = BigDecimal.ZERO;
+        for (PurchaseUnit unit : remote.purchaseUnits()) {
+            if (unit.payments() == null || unit.payments().captures() == null) {
+                continue;
+            }
+            for (Capture capture : unit.payments().captures()) {
+                if (!"COMPLETED".equals(capture.status())) {
+                    continue;
+                }
+                Money amount = capture.amount();
+                if (amount == null || amount.value() == null || !currency.equals(amount.currencyCode())) {
+                    return false;
+                }
+                captured = captured.add(new BigDecimal(amount.value()));
+            }
+        }
+        return captured.subtract(BigDecimal.valueOf(orderTotal)).abs().compareTo(TOLERANCE) <= 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.util.Map;
+
+// Resultado de confirmar un pago; se comparte entre peticiones repetidas o concurrentes
+public record PaymentConfirmation(String transactionId, boolean alreadyPaid) {
+
+    public static PaymentConfirmation captured(String transactionId) {
+        return new PaymentConfirmation(transactionId, false);
+    }
+
+    public static PaymentConfirmation forPaidOrder() {
+        return new PaymentConfirmation(null, true);
+    }
+
+    public Map<String, String> toResponse() {
+        return alreadyPaid
+                ? Map.of("status", "success", "message", "La orden ya estaba pagada")
+                : Map.of("status", "success", "transactionId", transactionId);
+    }
+}
@@ -0,0 +1,173 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
+import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.repositories.PaymentRepository;
+import com.tambo.tambo_delivery_backend.services.OrderService;
+import com.tambo.tambo_delivery_backend.services.PayPalService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Confirmación idempotente de pagos PayPal por (usuario, orderId, paypalOrderId):
+// - las peticiones idénticas concurrentes (doble clic, reintentos) esperan a la que ya está en curso
+// - los resultados correctos se recuerdan durante payments.confirmation-ttl-minutes
+// - un candado por orden serializa las capturas, de modo que cada pago hace una sola llamada a
+//   PayPal y una sola transición a PAID
+// Los errores no se guardan: el siguiente intento vuelve a consultar la orden y PayPal. Si falla
+// la transición a PAID tras capturar, el reintento vuelve a capturar con la misma clave de
+// idempotencia de PayPal y repite la transición.
+@Slf4j
+@Service
+public class PaymentConfirmationService {
+
+    private final PayPalService paypalService;
+    private final OrderService orderService;
+    private final PaymentRepository paymentRepository;
+    private final String currency;
+
+    private final Cache<String, PaymentConfirmation> confirmed;
+    private final ConcurrentMap<String, CompletableFuture<PaymentConfirmation>> inFlight = new ConcurrentHashMap<>();
+    private final Striped<Lock> orderLocks = Striped.lazyWeakLock(256);
+
+    public PaymentConfirmationService(PayPalService paypalService, OrderService orderService,
+            PaymentRepository paymentRepository,
+            @Value("${payments.confirmation-ttl-minutes:30}") long ttlMinutes,
+            @Value("${payments.currency:USD}") String currency) {
+        this.paypalService = paypalService;
+        this.orderService = orderService;
+        this.paymentRepository = paymentRepository;
+        this.currency = currency;
+        this.confirmed = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    // El cliente registra la orden de PayPal al crearla; si la confirmación nunca llega, la
+    // conciliación (PaymentReconciler) la consulta con este id. Solo el dueño de la orden puede
+    // hacerlo; para cualquier otro la orden no existe
+    public void registerProviderOrder(UUID orderId, String paypalOrderId, String email) {
+        if (paymentRepository.attachProviderOrderOfUser(orderId, paypalOrderId, PaymentStatus.PENDING, email) == 0) {
+            throw new ResourceNotFoundEx("No hay un pago pendiente para la orden");
+        }
+    }
+
+    // Como al registrar, solo el dueño de la orden puede confirmarla; para cualquier otro no existe
+    public PaymentConfirmation confirm(UUID orderId, String paypalOrderId, String email) throws IOException {
+        String key = email + ":" + orderId + ":" + paypalOrderId;
+        PaymentConfirmation cached = confirmed.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<PaymentConfirmation> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentConfirmation> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Confirmación de pago {} ya en curso; se espera su resultado", key);
+            return await(running);
+        }
+        try {
+            PaymentConfirmation result = confirmUnderOrderLock(key, orderId, paypalOrderId, email);
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private PaymentConfirmation confirmUnderOrderLock(String key, UUID orderId, String paypalOrderId,
+            String email) throws IOException {
+        Lock lock = orderLocks.get(orderId);
+        lock.lock();
+        try {
+            // Otra petición pudo terminar mientras se esperaba el candado
+            PaymentConfirmation cached = confirmed.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            Order order = orderService.getOrderById(orderId);
+            if (order == null) {
+                throw new ResourceNotFoundEx("Orden no encontrada");
+            }
+            if (order.getOrderStatus() == OrderStatus.PAID) {
+                if (!paymentRepository.existsByOrderIdAndOrderUserEmail(orderId, email)) {
+                    throw new ResourceNotFoundEx("Orden no encontrada");
+                }
+                return remember(key, PaymentConfirmation.forPaidOrder());
+            }
+
+            // Si la respuesta de la captura se pierde, la conciliación la recupera con este id
+            if (paymentRepository.attachProviderOrderOfUser(orderId, paypalOrderId, PaymentStatus.PENDING,
+                    email) == 0) {
+                throw new ResourceNotFoundEx("No hay un pago pendiente para la orden");
+            }
+            com.paypal.orders.Order paypalOrder = paypalService.captureOrder(paypalOrderId);
+            if (!"COMPLETED".equals(paypalOrder.status())) {
+                throw new RuntimeException("El pago no se completó. Estado: " + paypalOrder.status());
+            }
+            if (!CapturedAmount.matches(paypalOrder, order.getTotalAmount(), currency)) {
+                log.error("El importe capturado en PayPal {} no coincide con el total {} {} de la orden {}",
+                        paypalOrderId, order.getTotalAmount(), currency, orderId);
+                throw new RuntimeException("El importe pagado no coincide con el total de la orden");
+            }
+
+            // Si la transición falla la excepción llega al cliente y no se guarda nada
+            orderService.updateOrderStatus(orderId, OrderStatus.PAID, paypalOrder.id());
+            return remember(key, PaymentConfirmation.captured(paypalOrder.id()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Solo se recuerda lo confirmado: dentro de una transacción del llamador, al hacer commit
+    private PaymentConfirmation remember(String key, PaymentConfirmation result) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    confirmed.put(key, result);
+                }
+            });
+        } else {
+            confirmed.put(key, result);
+        }
+        return result;
+    }
+
+    private static PaymentConfirmation await(CompletableFuture<PaymentConfirmation> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
+import com.tambo.tambo_delivery_backend.exceptions.PaymentGatewayUnavailableEx;
+import com.tambo.tambo_delivery_backend.repositories.PaymentRepository;
+import com.tambo.tambo_delivery_backend.services.OrderService;
+import com.tambo.tambo_delivery_backend.services.OrderService.StatusTransition;
+import com.tambo.tambo_delivery_backend.services.PayPalService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Concilia con PayPal las órdenes cuyo pago sigue PENDING (la confirmación del cliente nunca llegó):
+// recorre los pagos en lotes keyset, consulta PayPal con concurrencia acotada y aplica las
+// transiciones de cada lote (una transacción por orden).
+// - COMPLETED en PayPal: la orden pasa a PAID si lo capturado coincide con su total y moneda;
+//   si no, se deja pendiente y se registra para revisión manual
+// - APPROVED: el comprador aprobó pero no se capturó; se captura (idempotente) y sigue como COMPLETED
+// - VOIDED, o sin pagar pasado expire-after: la orden pasa a FAILED y devuelve su stock
+// Los pagos más recientes que min-age se dejan al flujo normal de confirmación.
+@Slf4j
+@Component
+public class PaymentReconciler {
+
+    public record Result(int scanned, int paid, int expired) {
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final PayPalService paypalService;
+    private final OrderService orderService;
+    private final ExecutorService providerCalls;
+    private final int batchSize;
+    private final Duration minAge;
+    private final Duration expireAfter;
+    private final String currency;
+
+    public PaymentReconciler(PaymentRepository paymentRepository, PayPalService paypalService,
+            OrderService orderService,
+            @Value("${payments.currency:USD}") String currency,
+            @Value("${payments.reconcile.batch-size:100}") int batchSize,
+            @Value("${payments.reconcile.concurrency:4}") int concurrency,
+            @Value("${payments.reconcile.min-age-minutes:15}") long minAgeMinutes,
+            @Value("${payments.reconcile.expire-after-minutes:180}") long expireAfterMinutes) {
+        this.paymentRepository = paymentRepository;
+        this.paypalService = paypalService;
+        this.orderService = orderService;
+        this.batchSize = batchSize;
+        this.minAge = Duration.ofMinutes(minAgeMinutes);
+        this.expireAfter = Duration.ofMinutes(expireAfterMinutes);
+        this.currency = currency;
+        this.providerCalls = Executors.newFixedThreadPool(concurrency,
+                Thread.ofPlatform().daemon().name("payment-reconcile-", 0).factory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        providerCalls.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${payments.reconcile.interval-ms:300000}",
+            initialDelayString = "${payments.reconcile.interval-ms:300000}")
+    public void scheduledReconcile() {
+        try {
+            Result result = reconcile();
+            if (result.paid() > 0 || result.expired() > 0) {
+                log.info("Conciliación de pagos: {} revisados, {} pagados, {} expirados",
+                        result.scanned(), result.paid(), result.expired());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error en la conciliación de pagos", e);
+        }
+    }
+
+    public Result reconcile() {
+        long now = System.currentTimeMillis();
+        Date before = new Date(now - minAge.toMillis());
+        Date staleBefore = new Date(now - expireAfter.toMillis());
+
+        Date afterDate = new Date(0);
+        UUID afterId = new UUID(0, 0);
+        int scanned = 0;
+        int paid = 0;
+        int expired = 0;
+        while (true) {
+            List<PendingPayment> batch = paymentRepository.findPageAfter(PaymentStatus.PENDING,
+                    PaymentMethod.PAYPAL, before, afterDate, afterId, PageRequest.ofSize(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            scanned += batch.size();
+
+            List<StatusTransition> toPaid = new ArrayList<>();
+            List<StatusTransition> toFailed = new ArrayList<>();
+            for (StatusTransition transition : resolve(batch, staleBefore)) {
+                (transition.status() == OrderStatus.PAID ? toPaid : toFailed).add(transition);
+            }
+            paid += orderService.applyStatusTransitions(OrderStatus.PENDING, toPaid);
+            expired += orderService.applyStatusTransitions(OrderStatus.PENDING, toFailed);
+
+            // Los pagos que cambian de estado salen del filtro; el cursor avanza igualmente
+            PendingPayment last = batch.get(batch.size() - 1);
+            afterDate = last.paymentDate();
+            afterId = last.paymentId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return new Result(scanned, paid, expired);
+    }
+
+    // Consulta el lote con a lo sumo `concurrency` llamadas simultáneas a PayPal
+    private List<StatusTransition> resolve(List<PendingPayment> batch, Date staleBefore) {
+        List<Future<StatusTransition>> futures = new ArrayList<>(batch.size());
+        for (PendingPayment payment : batch) {
+            futures.add(providerCalls.submit(() -> resolve(payment, staleBefore)));
+        }
+        List<StatusTransition> transitions = new ArrayList<>();
+        for (Future<StatusTransition> future : futures) {
+            try {
+                StatusTransition transition = future.get();
+                if (transition != null) {
+                    transitions.add(transition);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("Error al conciliar un pago", e.getCause());
+            }
+        }
+        return transitions;
+    }
+
+    // null si no hay nada que hacer todavía (o no se pudo saber)
+    private StatusTransition resolve(PendingPayment payment, Date staleBefore) {
+        boolean stale = payment.paymentDate().before(staleBefore);
+        if (payment.providerOrderId() == null) {
+            // La orden nunca llegó a crearse en PayPal
+            return stale ? new StatusTransition(payment.orderId(), OrderStatus.FAILED, null) : null;
+        }
+        try {
+            com.paypal.orders.Order remote = paypalService.getOrder(payment.providerOrderId());
+            String status = remote != null ? remote.status() : null;
+            if ("APPROVED".equals(status)) {
+                remote = paypalService.captureOrder(payment.providerOrderId());
+                status = remote.status();
+            }
+            if ("COMPLETED".equals(status)) {
+                if (!CapturedAmount.matches(remote, payment.orderTotal(), currency)) {
+                    // Cobrado pero no por el total: ni PAID ni FAILED (el dinero ya se capturó)
+                    log.error("El importe capturado en PayPal {} no coincide con el total {} {} de la orden {}",
+                            payment.providerOrderId(), payment.orderTotal(), currency, payment.orderId());
+                    return null;
+                }
+                return new StatusTransition(payment.orderId(), OrderStatus.PAID, remote.id());
+            }
+            if ("VOIDED".equals(status) || stale) {
+                return new StatusTransition(payment.orderId(), OrderStatus.FAILED, null);
+            }
+            return null;
+        } catch (PaymentGatewayUnavailableEx e) {
+            // PayPal caído o saturado: se reintenta en la siguiente pasada
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo conciliar el pago de la orden {}: {}", payment.orderId(), e.getMessage());
+            return null;
+        }
+    }
+}
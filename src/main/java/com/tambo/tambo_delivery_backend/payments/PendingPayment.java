@@ -0,0 +1,9 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.util.Date;
+import java.util.UUID;
+
+// Pago pendiente leído por la conciliación (sin cargar la orden completa)
+public record PendingPayment(UUID paymentId, UUID orderId, String providerOrderId, Date paymentDate,
+        Double orderTotal) {
+}
@@ -0,0 +1,182 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tambo.tambo_delivery_backend.auth.services.EmailService;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutbox;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutboxStatus;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
+import com.tambo.tambo_delivery_backend.repositories.ReceiptOutboxRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Genera el PDF y envía el correo de los comprobantes encolados en receipt_outbox.
+// Un pool acotado procesa los avisos de ReceiptQueuedEvent; si está lleno el aviso se descarta y
+// el sondeo periódico recoge el comprobante (también los reintentos y los de otras instancias).
+// Entrega al menos una vez: si el proceso cae tras enviar y antes de marcarlo, se reenvía.
+@Slf4j
+@Component
+public class ReceiptDispatcher {
+
+    // Tiempo que un worker tiene reservado el comprobante antes de que otro pueda tomarlo
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final ReceiptOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final ReceiptDocuments receiptDocuments;
+    private final EmailService emailService;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+
+    public ReceiptDispatcher(ReceiptOutboxRepository outboxRepository, OrderRepository orderRepository,
+            ReceiptDocuments receiptDocuments, EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            @Value("${receipts.workers:2}") int workers,
+            @Value("${receipts.queue-capacity:100}") int queueCapacity,
+            @Value("${receipts.max-attempts:8}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.receiptDocuments = receiptDocuments;
+        this.emailService = emailService;
+        this.maxAttempts = maxAttempts;
+        // Transacción propia: se ejecuta en los hilos del pool, después del commit de la petición
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().daemon().name("receipt-", 0).factory(),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceiptQueued(ReceiptQueuedEvent event) {
+        submit(event.outboxId());
+    }
+
+    @Scheduled(fixedDelayString = "${receipts.poll-interval-ms:15000}",
+            initialDelayString = "${receipts.poll-interval-ms:15000}")
+    public void pollDue() {
+        try {
+            int capacity = executor.getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            List<UUID> due = outboxRepository.findDueIds(ReceiptOutboxStatus.PENDING, Instant.now(),
+                    PageRequest.of(0, capacity));
+            due.forEach(this::submit);
+        } catch (RuntimeException e) {
+            log.error("Error al buscar comprobantes pendientes", e);
+        }
+    }
+
+    public int inFlight() {
+        return executor.getActiveCount();
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    private void submit(UUID outboxId) {
+        executor.execute(() -> process(outboxId));
+    }
+
+    // Procesa un comprobante si consigue reservarlo; devuelve false si otro worker lo tiene
+    // o aún no le toca
+    boolean process(UUID outboxId) {
+        Instant now = Instant.now();
+        Integer claimed = transaction.execute(status -> outboxRepository.claim(outboxId,
+                ReceiptOutboxStatus.PENDING, now, now.plus(LEASE)));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+        try {
+            Rendered rendered = transaction.execute(status -> render(outboxId));
+            // El envío SMTP va fuera de la transacción para no retener la conexión a BD
+            if (rendered.type() == ReceiptType.FACTURA) {
+                emailService.sendFacturaEmail(rendered.order(), rendered.pdf());
+            } else {
+                emailService.sendBoletaEmail(rendered.order(), rendered.pdf());
+            }
+            transaction.executeWithoutResult(status -> markSent(outboxId));
+        } catch (Exception e) {
+            transaction.executeWithoutResult(status -> markFailed(outboxId, e));
+        }
+        return true;
+    }
+
+    private record Rendered(Order order, ReceiptType type, byte[] pdf) {
+    }
+
+    // Genera el PDF dentro de la transacción: la orden, sus líneas y el usuario se cargan aquí
+    private Rendered render(UUID outboxId) {
+        ReceiptOutbox outbox = outboxRepository.findById(outboxId).orElseThrow();
+        Order order = orderRepository.findById(outbox.getOrderId())
+                .orElseThrow(() -> new IllegalStateException("Orden no encontrada: " + outbox.getOrderId()));
+        // Se genera una sola vez y queda guardado para las descargas
+        byte[] pdf = receiptDocuments.pdfFor(order, outbox.getReceiptType());
+        // El correo se arma fuera de la transacción con los datos del usuario
+        Hibernate.initialize(order.getUser());
+        return new Rendered(order, outbox.getReceiptType(), pdf);
+    }
+
+    private void markSent(UUID outboxId) {
+        outboxRepository.findById(outboxId).ifPresent(outbox -> {
+            outbox.setStatus(ReceiptOutboxStatus.SENT);
+            outbox.setSentAt(Instant.now());
+            outbox.setLastError(null);
+        });
+    }
+
+    private void markFailed(UUID outboxId, Exception error) {
+        outboxRepository.findById(outboxId).ifPresent(outbox -> {
+            outbox.setLastError(StringUtils.abbreviate(String.valueOf(error.getMessage()), 500));
+            if (outbox.getAttempts() >= maxAttempts) {
+                outbox.setStatus(ReceiptOutboxStatus.FAILED);
+                log.error("Comprobante de la orden {} descartado tras {} intentos", outbox.getOrderId(),
+                        outbox.getAttempts(), error);
+            } else {
+                outbox.setNextAttemptAt(Instant.now().plus(backoff(outbox.getAttempts())));
+                log.warn("Error al enviar el comprobante de la orden {} (intento {}): {}", outbox.getOrderId(),
+                        outbox.getAttempts(), error.getMessage());
+            }
+        });
+    }
+
+    // Exponencial desde 30 s hasta 1 h, con ±20 % de variación para no reintentar todos a la vez
+    static Duration backoff(int attempts) {
+        long base = BASE_BACKOFF.toMillis() << Math.min(attempts - 1, 16);
+        long capped = Math.min(base, MAX_BACKOFF.toMillis());
+        double jitter = ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+}
@@ -0,0 +1,123 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.Striped;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
+import com.tambo.tambo_delivery_backend.services.BoletaPdfService;
+import com.tambo.tambo_delivery_backend.services.FacturaPdfService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// PDFs de boleta y factura: se generan una vez (al enviar el comprobante tras el pago, o en la
+// primera descarga) y se sirven desde ReceiptStore. Las órdenes aún sin pagar reciben un borrador
+// generado en cada petición, porque su contenido todavía puede cambiar.
+@Slf4j
+@Service
+public class ReceiptDocuments {
+
+    // Estados en los que el comprobante ya es definitivo
+    private static final Set<OrderStatus> FINAL_STATUSES = EnumSet.of(OrderStatus.PAID,
+            OrderStatus.IN_PROGRESS, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    // stored si el comprobante está en disco; draft si se generó solo para esta petición
+    public record ReceiptDownload(StoredReceipt stored, byte[] draft) {
+    }
+
+    private record Rendered(OrderStatus status, byte[] pdf) {
+    }
+
+    private final ReceiptStore store;
+    private final OrderRepository orderRepository;
+    private final BoletaPdfService boletaPdfService;
+    private final FacturaPdfService facturaPdfService;
+    private final TransactionTemplate readTransaction;
+    // Dos descargas simultáneas de una orden nueva generan el PDF una sola vez
+    private final Striped<Lock> orderLocks = Striped.lazyWeakLock(64);
+
+    public ReceiptDocuments(ReceiptStore store, OrderRepository orderRepository,
+            BoletaPdfService boletaPdfService, FacturaPdfService facturaPdfService,
+            PlatformTransactionManager transactionManager) {
+        this.store = store;
+        this.orderRepository = orderRepository;
+        this.boletaPdfService = boletaPdfService;
+        this.facturaPdfService = facturaPdfService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public ReceiptDownload download(UUID orderId, ReceiptType type) throws IOException {
+        Optional<StoredReceipt> stored = store.find(orderId, type);
+        if (stored.isPresent()) {
+            return new ReceiptDownload(stored.get(), null);
+        }
+        Lock lock = orderLocks.get(orderId);
+        lock.lock();
+        try {
+            stored = store.find(orderId, type);
+            if (stored.isPresent()) {
+                return new ReceiptDownload(stored.get(), null);
+            }
+            // La orden, sus líneas y el usuario se leen dentro de la transacción
+            Rendered rendered = readTransaction.execute(status -> orderRepository.findById(orderId)
+                    .map(order -> new Rendered(order.getOrderStatus(), render(order, type)))
+                    .orElse(null));
+            if (rendered == null) {
+                throw new ResourceNotFoundEx("Orden no encontrada");
+            }
+            if (!FINAL_STATUSES.contains(rendered.status())) {
+                return new ReceiptDownload(null, rendered.pdf());
+            }
+            return new ReceiptDownload(store.store(orderId, type, rendered.pdf()), null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // PDF para el correo del comprobante; se llama dentro de la transacción del envío.
+    // Un reintento reutiliza el PDF ya guardado. Un fallo del disco no impide el envío
+    public byte[] pdfFor(Order order, ReceiptType type) {
+        Lock lock = orderLocks.get(order.getId());
+        lock.lock();
+        try {
+            Optional<StoredReceipt> stored = store.find(order.getId(), type);
+            if (stored.isPresent()) {
+                try {
+                    return store.read(stored.get());
+                } catch (IOException e) {
+                    log.warn("No se pudo leer el comprobante guardado de la orden {}", order.getId(), e);
+                }
+            }
+            byte[] pdf = render(order, type);
+            if (FINAL_STATUSES.contains(order.getOrderStatus())) {
+                try {
+                    store.store(order.getId(), type, pdf);
+                } catch (IOException e) {
+                    log.warn("No se pudo guardar el comprobante de la orden {}", order.getId(), e);
+                }
+            }
+            return pdf;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] render(Order order, ReceiptType type) {
+        return type == ReceiptType.FACTURA
+                ? facturaPdfService.generateFacturaPdf(order)
+                : boletaPdfService.generateBoletaPdf(order);
+    }
+}
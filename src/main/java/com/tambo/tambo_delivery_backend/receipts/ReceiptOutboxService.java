@@ -0,0 +1,81 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.dto.response.ReceiptQueueStatsDTO;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutbox;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutboxStatus;
+import com.tambo.tambo_delivery_backend.orders.OrderEventMessage;
+import com.tambo.tambo_delivery_backend.orders.OrderEventSubscriber;
+import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
+import com.tambo.tambo_delivery_backend.repositories.ReceiptOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ReceiptOutboxService implements OrderEventSubscriber {
+
+    private final ReceiptOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final ReceiptDispatcher dispatcher;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Encola el comprobante de una orden pagada en la transacción del llamador; idempotente
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Order order) {
+        if (order.getReceiptType() == null || outboxRepository.existsByOrderId(order.getId())) {
+            return;
+        }
+        Instant now = Instant.now();
+        ReceiptOutbox outbox = outboxRepository.save(ReceiptOutbox.builder()
+                .orderId(order.getId())
+                .receiptType(order.getReceiptType())
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        eventPublisher.publishEvent(new ReceiptQueuedEvent(outbox.getId()));
+    }
+
+    @Override
+    public String subscriberName() {
+        return "receipts";
+    }
+
+    // Al pasar a PAID se encola el comprobante
+    @Override
+    public void onOrderEvent(OrderEventMessage event) {
+        if (event.isTransitionTo(OrderStatus.PAID)) {
+            orderRepository.findById(event.orderId()).ifPresent(this::enqueue);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ReceiptQueueStatsDTO getStats() {
+        ReceiptQueueStatsDTO stats = ReceiptQueueStatsDTO.builder()
+                .inFlight(dispatcher.inFlight())
+                .queued(dispatcher.queued())
+                .build();
+        for (Object[] row : outboxRepository.countByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            switch ((ReceiptOutboxStatus) row[0]) {
+                case PENDING -> {
+                    stats.setPending(count);
+                    stats.setOldestPendingSeconds(
+                            Duration.between((Instant) row[2], Instant.now()).toSeconds());
+                }
+                case SENT -> stats.setSent(count);
+                case FAILED -> stats.setFailed(count);
+            }
+        }
+        return stats;
+    }
+}
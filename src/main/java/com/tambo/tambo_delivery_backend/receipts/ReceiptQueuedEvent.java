@@ -0,0 +1,7 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.util.UUID;
+
+// Se publica al encolar un comprobante para procesarlo en cuanto la transacción confirme
+public record ReceiptQueuedEvent(UUID outboxId) {
+}
@@ -0,0 +1,124 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+
+// Comprobantes PDF en disco, direccionados por contenido: <dir>/<orderId>/<tipo>-<sha256>.pdf.
+// Se escriben en un temporal y se renombran de forma atómica, así una descarga nunca lee un
+// fichero a medias. Un índice en memoria evita listar el directorio en cada descarga.
+@Component
+public class ReceiptStore {
+
+    private static final String EXTENSION = ".pdf";
+
+    private final Path root;
+    private final Cache<String, StoredReceipt> index = CacheBuilder.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public ReceiptStore(@Value("${receipts.store-dir:data/receipts}") String dir) throws IOException {
+        this.root = Files.createDirectories(Path.of(dir).toAbsolutePath().normalize());
+    }
+
+    public Optional<StoredReceipt> find(UUID orderId, ReceiptType type) {
+        String key = key(orderId, type);
+        StoredReceipt cached = index.getIfPresent(key);
+        if (cached != null && Files.exists(cached.path())) {
+            return Optional.of(cached);
+        }
+        index.invalidate(key);
+        Optional<StoredReceipt> found = versions(orderId, type).stream()
+                .max(Comparator.comparing(StoredReceipt::lastModified));
+        found.ifPresent(receipt -> index.put(key, receipt));
+        return found;
+    }
+
+    // Guarda el PDF y elimina las versiones anteriores del mismo comprobante
+    public StoredReceipt store(UUID orderId, ReceiptType type, byte[] pdf) throws IOException {
+        String hash = Hashing.sha256().hashBytes(pdf).toString();
+        Path dir = Files.createDirectories(root.resolve(orderId.toString()));
+        Path target = dir.resolve(prefix(type) + hash + EXTENSION);
+        if (!Files.exists(target)) {
+            Path temp = Files.createTempFile(dir, prefix(type), ".tmp");
+            try {
+                Files.write(temp, pdf);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        StoredReceipt stored = describe(target, hash);
+        for (StoredReceipt old : versions(orderId, type)) {
+            if (!old.path().equals(target)) {
+                // Una descarga en curso conserva su descriptor abierto
+                Files.deleteIfExists(old.path());
+            }
+        }
+        index.put(key(orderId, type), stored);
+        return stored;
+    }
+
+    public byte[] read(StoredReceipt receipt) throws IOException {
+        return Files.readAllBytes(receipt.path());
+    }
+
+    private List<StoredReceipt> versions(UUID orderId, ReceiptType type) {
+        Path dir = root.resolve(orderId.toString());
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        String prefix = prefix(type);
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(EXTENSION);
+                    })
+                    .flatMap(path -> {
+                        String name = path.getFileName().toString();
+                        String hash = name.substring(prefix.length(), name.length() - EXTENSION.length());
+                        try {
+                            return Stream.of(describe(path, hash));
+                        } catch (UncheckedIOException e) {
+                            // Borrado por una escritura concurrente
+                            return Stream.empty();
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StoredReceipt describe(Path path, String hash) {
+        try {
+            return new StoredReceipt(path, hash, Files.size(path), Files.getLastModifiedTime(path).toInstant());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String prefix(ReceiptType type) {
+        return type.name().toLowerCase() + "-";
+    }
+
+    private static String key(UUID orderId, ReceiptType type) {
+        return orderId + ":" + type;
+    }
+}
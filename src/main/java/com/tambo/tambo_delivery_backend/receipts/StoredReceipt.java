@@ -0,0 +1,12 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+// PDF guardado en disco; hash es el SHA-256 del contenido y sirve de ETag
+public record StoredReceipt(Path path, String hash, long size, Instant lastModified) {
+
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+}
@@ -2,7 +2,10 @@ package com.tambo.tambo_delivery_backend.repositories;
 
 import com.tambo.tambo_delivery_backend.entities.Discount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,4 +14,13 @@ public interface DiscountRepository extends JpaRepository<Discount, UUID> {
 
     List<Discount> findAllById(UUID id);
 
+    // Relación producto-descuento sin cargar entidades. Columnas: productId, discountId
+    @Query("SELECT p.id, d.id FROM Discount d JOIN d.products p")
+    List<Object[]> findAllProductLinks();
+
+    @Query("SELECT p.id, d.id FROM Discount d JOIN d.products p WHERE p.id IN :productIds")
+    List<Object[]> findProductLinksByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT p.id FROM Discount d JOIN d.products p WHERE d.id = :discountId")
+    List<UUID> findProductIdsByDiscountId(@Param("discountId") UUID discountId);
 }
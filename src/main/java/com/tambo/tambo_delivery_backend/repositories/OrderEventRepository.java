@@ -0,0 +1,68 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tambo.tambo_delivery_backend.entities.OrderEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderEventStatus;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // Secuencia más alta que queda en la tabla; solo inicializa el contador de órdenes
+    // anteriores a order_event_sequences
+    @Query("SELECT COALESCE(MAX(e.sequence), 0) FROM OrderEvent e WHERE e.orderId = :orderId")
+    int findMaxSequence(@Param("orderId") UUID orderId);
+
+    // Candidatos a reservar: pendientes sin reserva vigente, en orden de inserción. Se excluyen
+    // los de órdenes con un evento anterior sin publicar que no se puede reservar ahora
+    // (reservado por otra instancia, esperando reintento o descartado)
+    @Query("SELECT e.id FROM OrderEvent e " +
+            "WHERE e.status = :status AND (e.leaseUntil IS NULL OR e.leaseUntil < :now) " +
+            "AND NOT EXISTS (SELECT p.id FROM OrderEvent p WHERE p.orderId = e.orderId AND p.id < e.id " +
+            "AND p.status <> :published AND (p.status <> :status OR p.leaseUntil >= :now)) " +
+            "ORDER BY e.id")
+    List<Long> findClaimableIds(@Param("status") OrderEventStatus status,
+            @Param("published") OrderEventStatus published, @Param("now") Instant now, Pageable pageable);
+
+    // Órdenes del lote con un evento anterior sin publicar que quedó fuera de él
+    @Query("SELECT DISTINCT e.orderId FROM OrderEvent e " +
+            "WHERE e.status <> :published AND e.id NOT IN :ids " +
+            "AND EXISTS (SELECT c.id FROM OrderEvent c WHERE c.id IN :ids AND c.orderId = e.orderId AND c.id > e.id)")
+    List<UUID> findOrdersBlockedBefore(@Param("ids") Collection<Long> ids,
+            @Param("published") OrderEventStatus published);
+
+    // Solo las filas que siguen libres quedan reservadas por esta instancia
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.claimedBy = :worker, e.leaseUntil = :leaseUntil, " +
+            "e.attempts = e.attempts + 1 " +
+            "WHERE e.id IN :ids AND e.status = :status AND (e.leaseUntil IS NULL OR e.leaseUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("status") OrderEventStatus status,
+            @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil, @Param("worker") String worker);
+
+    @Query("SELECT e FROM OrderEvent e " +
+            "WHERE e.id IN :ids AND e.claimedBy = :worker AND e.status = :status ORDER BY e.id")
+    List<OrderEvent> findClaimed(@Param("ids") Collection<Long> ids, @Param("status") OrderEventStatus status,
+            @Param("worker") String worker);
+
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.status = :status, e.publishedAt = :now, e.leaseUntil = NULL, " +
+            "e.lastError = NULL WHERE e.id IN :ids AND e.claimedBy = :worker")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("status") OrderEventStatus status,
+            @Param("now") Instant now, @Param("worker") String worker);
+
+    @Modifying
+    @Query("DELETE FROM OrderEvent e WHERE e.status = :status AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("status") OrderEventStatus status, @Param("before") Instant before);
+
+    long countByStatus(OrderEventStatus status);
+}
@@ -0,0 +1,24 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tambo.tambo_delivery_backend.entities.OrderEventSequence;
+
+@Repository
+public interface OrderEventSequenceRepository extends JpaRepository<OrderEventSequence, UUID> {
+
+    // Bloquea la fila del contador hasta el fin de la transacción: los eventos concurrentes
+    // de la misma orden se serializan en lugar de chocar
+    @Modifying
+    @Query("UPDATE OrderEventSequence s SET s.lastSequence = s.lastSequence + 1 WHERE s.orderId = :orderId")
+    int increment(@Param("orderId") UUID orderId);
+
+    @Query("SELECT s.lastSequence FROM OrderEventSequence s WHERE s.orderId = :orderId")
+    int findLastSequence(@Param("orderId") UUID orderId);
+}
@@ -0,0 +1,49 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+
+    // Unidades vendidas por producto (sin órdenes canceladas ni fallidas). Columnas: productId, cantidad
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.orderStatus NOT IN (com.tambo.tambo_delivery_backend.entities.OrderStatus.CANCELLED, " +
+            "com.tambo.tambo_delivery_backend.entities.OrderStatus.FAILED) " +
+            "GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // Lo mismo, solo para los productos indicados
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.product.id IN :productIds " +
+            "AND oi.order.orderStatus NOT IN (com.tambo.tambo_delivery_backend.entities.OrderStatus.CANCELLED, " +
+            "com.tambo.tambo_delivery_backend.entities.OrderStatus.FAILED) " +
+            "GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    // Líneas de varias órdenes en una sola consulta, desde las columnas copiadas al comprar (sin
+    // cargar productos). Columnas: orderId, id, productId, productName, productThumbnail, quantity, itemPrice
+    @Query("SELECT oi.order.id, oi.id, oi.product.id, oi.productName, oi.productThumbnail, oi.quantity, " +
+            "oi.itemPrice FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Object[]> findLinesByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Completa la copia del producto en las líneas anteriores a las columnas de snapshot
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderItem oi SET " +
+            "oi.productName = (SELECT p.name FROM Product p WHERE p.id = oi.product.id), " +
+            "oi.productThumbnail = (SELECT MIN(r.url) FROM Resources r " +
+            "WHERE r.product.id = oi.product.id AND r.isPrimary = true) " +
+            "WHERE oi.productName IS NULL")
+    int backfillProductSnapshots();
+}
@@ -1,27 +1,46 @@
 package com.tambo.tambo_delivery_backend.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
 import com.tambo.tambo_delivery_backend.auth.entities.User;
 import com.tambo.tambo_delivery_backend.entities.Order;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+
+    // Atributos a-uno del listado del admin; las líneas se cargan aparte para toda la página.
+    // payment es el lado inverso de un OneToOne: sin el fetch Hibernate lo consulta orden a orden
+    String[] LISTING_GRAPH = { "user", "payment" };
+
     // Obtener todas las ordenes por usuario
     List<Order> findByUser(User user);
 
     // Obtener todas las órdenes ordenadas por fecha (más reciente primero)
     List<Order> findAllByOrderByOrderDateDesc();
 
-    @Query("SELECT DISTINCT o FROM Order o " +
-            "LEFT JOIN FETCH o.orderItemList items " +
-            "WHERE o.user = :user " +
-            "ORDER BY o.orderDate DESC")
-    List<Order> findByUserWithItemsAndAddress(@Param("user") User user);
+    // Historial del cliente; las líneas se leen aparte con OrderItemRepository.findLinesByOrderIdIn
+    @EntityGraph(attributePaths = { "payment" })
+    List<Order> findByUserOrderByOrderDateDescIdDesc(User user);
+
+    // Órdenes a actualizar en bloque, con lo que tocan las transiciones de estado
+    @EntityGraph(attributePaths = { "payment", "orderItemList" })
+    List<Order> findWithPaymentAndItemsByIdIn(Collection<UUID> ids);
+
+    // Para cambiar el estado: bloquea la fila de la orden hasta el fin de la transacción, así dos
+    // transiciones simultáneas (confirmación del cliente y conciliación) se aplican una tras otra y
+    // la segunda ve el estado que dejó la primera
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = { "payment", "orderItemList" })
+    Optional<Order> findWithPaymentAndItemsById(UUID id);
 }
@@ -0,0 +1,50 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.entities.Payment;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
+import com.tambo.tambo_delivery_backend.payments.PendingPayment;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+
+    // Página keyset de pagos en un estado, más antiguos primero, posteriores a (afterDate, afterId)
+    @Query("SELECT new com.tambo.tambo_delivery_backend.payments.PendingPayment(p.id, p.order.id, " +
+            "p.providerOrderId, p.paymentDate, p.order.totalAmount) FROM Payment p " +
+            "WHERE p.paymentStatus = :status AND p.paymentMethod = :method AND p.paymentDate < :before " +
+            "AND (p.paymentDate > :afterDate OR (p.paymentDate = :afterDate AND p.id > :afterId)) " +
+            "ORDER BY p.paymentDate, p.id")
+    List<PendingPayment> findPageAfter(@Param("status") PaymentStatus status,
+            @Param("method") PaymentMethod method,
+            @Param("before") Date before,
+            @Param("afterDate") Date afterDate,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+
+    // Solo mientras el pago sigue pendiente y si la orden pertenece al usuario; devuelve 0 si la
+    // orden no existe, es de otro usuario o ya se resolvió
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.providerOrderId = :providerOrderId " +
+            "WHERE p.order.id = :orderId AND p.paymentStatus = :status " +
+            "AND p.order.id IN (SELECT o.id FROM Order o WHERE o.user.email = :email)")
+    int attachProviderOrderOfUser(@Param("orderId") UUID orderId,
+            @Param("providerOrderId") String providerOrderId,
+            @Param("status") PaymentStatus status,
+            @Param("email") String email);
+
+    // Si la orden (con su pago) pertenece al usuario
+    boolean existsByOrderIdAndOrderUserEmail(UUID orderId, String email);
+}
@@ -0,0 +1,22 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tambo.tambo_delivery_backend.entities.ProcessedOrderEvent;
+
+@Repository
+public interface ProcessedOrderEventRepository extends JpaRepository<ProcessedOrderEvent, UUID> {
+
+    boolean existsBySubscriberAndIdempotencyKey(String subscriber, String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedOrderEvent p WHERE p.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
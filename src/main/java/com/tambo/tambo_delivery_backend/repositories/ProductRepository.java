@@ -2,10 +2,13 @@ package com.tambo.tambo_delivery_backend.repositories;
 
 import com.tambo.tambo_delivery_backend.entities.CategoryType;
 import com.tambo.tambo_delivery_backend.entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,10 +16,23 @@ import java.util.UUID;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
 
+    // Atributos a-uno que ProductMapper.toDTO necesita; las colecciones se cargan por lotes (@BatchSize)
+    String[] LISTING_GRAPH = { "brand", "category", "categoryType" };
+
+    // Listados de productos: marca, categoría y tipo en el mismo SELECT
+    @Override
+    @EntityGraph(attributePaths = { "brand", "category", "categoryType" })
+    List<Product> findAll(Specification<Product> spec);
+
+    @EntityGraph(attributePaths = { "brand", "category", "categoryType" })
     Optional<Product> findBySlug(String slug);
 
+    @EntityGraph(attributePaths = { "brand", "category", "categoryType" })
     List<Product> findAllByIsActiveTrue();
 
+    @EntityGraph(attributePaths = { "brand", "category", "categoryType" })
+    List<Product> findAllByIdIn(Collection<UUID> ids);
+
     Optional<Product> findBySlugAndIsActiveTrue(String slug);
 
     boolean existsBySlug(String slug);
@@ -4,9 +4,25 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.tambo.tambo_delivery_backend.entities.ProductSection;
 
 public interface ProductSectionRepository extends JpaRepository<ProductSection, UUID> {
     List<ProductSection> findAllByOrderByPositionAsc();
+
+    // Secciones del home con los ids de sus maxProducts productos activos más recientes, en una sola
+    // consulta (ROW_NUMBER por categoría). Columnas: sectionId, categoryId, maxProducts, position, productId.
+    // Las secciones van a la izquierda del LEFT JOIN: una sección sin productos activos o con
+    // maxProducts = 0 sigue apareciendo, con una única fila cuyo productId es null
+    @Query("SELECT s.id, s.category.id, s.maxProducts, s.position, r.productId " +
+            "FROM ProductSection s " +
+            "LEFT JOIN (" +
+            "SELECT p.category.id AS categoryId, p.id AS productId, " +
+            "ROW_NUMBER() OVER (PARTITION BY p.category.id ORDER BY p.createdAt DESC, p.id DESC) AS rn " +
+            "FROM Product p WHERE p.isActive = true " +
+            "AND p.category.id IN (SELECT ps.category.id FROM ProductSection ps)" +
+            ") r ON r.categoryId = s.category.id AND r.rn <= s.maxProducts " +
+            "ORDER BY s.position ASC, s.id ASC, r.rn ASC")
+    List<Object[]> findSectionsWithTopProductIds();
 }
@@ -0,0 +1,38 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutbox;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutboxStatus;
+
+@Repository
+public interface ReceiptOutboxRepository extends JpaRepository<ReceiptOutbox, UUID> {
+
+    boolean existsByOrderId(UUID orderId);
+
+    @Query("SELECT r.id FROM ReceiptOutbox r " +
+            "WHERE r.status = :status AND r.nextAttemptAt <= :now " +
+            "ORDER BY r.nextAttemptAt")
+    List<UUID> findDueIds(@Param("status") ReceiptOutboxStatus status, @Param("now") Instant now,
+            Pageable pageable);
+
+    // Reserva el comprobante para un worker: solo uno de varios intentos concurrentes afecta la fila
+    @Modifying
+    @Query("UPDATE ReceiptOutbox r SET r.nextAttemptAt = :leaseUntil, r.attempts = r.attempts + 1 " +
+            "WHERE r.id = :id AND r.status = :status AND r.nextAttemptAt <= :now")
+    int claim(@Param("id") UUID id, @Param("status") ReceiptOutboxStatus status, @Param("now") Instant now,
+            @Param("leaseUntil") Instant leaseUntil);
+
+    // Filas (estado, cantidad, creación más antigua)
+    @Query("SELECT r.status, COUNT(r), MIN(r.createdAt) FROM ReceiptOutbox r GROUP BY r.status")
+    List<Object[]> countByStatus();
+}
@@ -0,0 +1,80 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+// Actualizaciones de stock en lote (JDBC batch): una cesta entera en un solo envío a la BD,
+// con MySQL y rewriteBatchedStatements=true en la URL de conexión
+@Repository
+@RequiredArgsConstructor
+public class StockRepository {
+
+    // Descuenta solo si alcanza el stock, sin leer antes. Las asignaciones van en este orden porque
+    // MySQL las evalúa una a una y cada una debe ver los valores anteriores: al agotarse, un producto
+    // activo se desactiva y se marca como desactivado automáticamente
+    private static final String RESERVE_SQL = "UPDATE products "
+            + "SET auto_deactivated = CASE WHEN stock = ? AND is_active THEN true ELSE auto_deactivated END, "
+            + "is_active = CASE WHEN stock = ? THEN false ELSE is_active END, stock = stock - ? "
+            + "WHERE id = ? AND stock >= ?";
+
+    // Reactiva solo lo que desactivó la reserva; lo desactivado por el administrador sigue igual
+    private static final String RELEASE_SQL = "UPDATE products "
+            + "SET is_active = CASE WHEN auto_deactivated THEN true ELSE is_active END, "
+            + "auto_deactivated = false, stock = stock + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Devuelve, por línea, 1 si se reservó y 0 si no había stock suficiente
+    public int[] reserve(List<Map.Entry<UUID, Integer>> lines) {
+        return jdbcTemplate.batchUpdate(RESERVE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<UUID, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setInt(2, line.getValue());
+                ps.setInt(3, line.getValue());
+                ps.setBytes(4, toBytes(line.getKey()));
+                ps.setInt(5, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+    }
+
+    public void release(List<Map.Entry<UUID, Integer>> lines) {
+        jdbcTemplate.batchUpdate(RELEASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<UUID, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setBytes(2, toBytes(line.getKey()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+    }
+
+    // Hibernate guarda los UUID como binary(16) en MySQL
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -1,22 +1,36 @@
 package com.tambo.tambo_delivery_backend.services;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryButtonDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
 import com.tambo.tambo_delivery_backend.dto.response.ProductSectionDTO;
 import com.tambo.tambo_delivery_backend.dto.response.SliderImageDTO;
 import com.tambo.tambo_delivery_backend.entities.Category;
 import com.tambo.tambo_delivery_backend.entities.CategoryButton;
 import com.tambo.tambo_delivery_backend.entities.ProductSection;
 import com.tambo.tambo_delivery_backend.entities.SliderImage;
+import com.tambo.tambo_delivery_backend.home.HomeConfigChangedEvent;
 import com.tambo.tambo_delivery_backend.mapper.CategoryButtonMapper;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
 import com.tambo.tambo_delivery_backend.mapper.ProductSectionMapper;
 import com.tambo.tambo_delivery_backend.mapper.SliderImageMapper;
 import com.tambo.tambo_delivery_backend.repositories.CategoryButtonRepository;
 import com.tambo.tambo_delivery_backend.repositories.CategoryRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
 import com.tambo.tambo_delivery_backend.repositories.ProductSectionRepository;
 import com.tambo.tambo_delivery_backend.repositories.SliderImageRepository;
 
@@ -30,6 +44,9 @@ public class AppConfigService {
     private final CategoryButtonRepository buttonRepo;
     private final ProductSectionRepository sectionRepo;
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiscountPricingIndex discountPricing;
 
     // --- Slider
     public List<SliderImageDTO> getSliderImages() {
@@ -39,11 +56,14 @@ public class AppConfigService {
 
     public SliderImageDTO saveSlider(SliderImageDTO dto) {
         SliderImage image = SliderImageMapper.toEntity(dto);
-        return SliderImageMapper.toDTO(sliderRepo.save(image));
+        SliderImageDTO saved = SliderImageMapper.toDTO(sliderRepo.save(image));
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
+        return saved;
     }
 
     public void deleteSlider(UUID id) {
         sliderRepo.deleteById(id);
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
     }
 
     // --- Botones de categoría
@@ -58,11 +78,14 @@ public class AppConfigService {
         CategoryButton btn = new CategoryButton();
         btn.setCategory(category);
         btn.setPosition(dto.getPosition());
-        return CategoryButtonMapper.toDTO(buttonRepo.save(btn));
+        CategoryButtonDTO saved = CategoryButtonMapper.toDTO(buttonRepo.save(btn));
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
+        return saved;
     }
 
     public void deleteCategoryButton(UUID id) {
         buttonRepo.deleteById(id);
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
     }
 
     // --- Secciones de productos
@@ -71,6 +94,42 @@ public class AppConfigService {
                 .map(ProductSectionMapper::toDTO).toList();
     }
 
+    // Secciones con sus productos para el home: una consulta calcula el top N de cada sección
+    // (ROW_NUMBER) y otra carga esos productos con su grafo, en lugar de un escaneo por sección
+    @Transactional(readOnly = true)
+    public List<ProductSectionDTO> getProductSectionsWithProducts() {
+        List<Object[]> rows = sectionRepo.findSectionsWithTopProductIds();
+
+        Set<UUID> productIds = rows.stream()
+                .map(row -> (UUID) row[4])
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, ProductDTO> products = productIds.isEmpty()
+                ? Map.of()
+                : productRepository.findAllByIdIn(productIds).stream()
+                        .map(product -> ProductMapper.toDTO(product, discountPricing.percentageOf(product.getId())))
+                        .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
+        // Las filas llegan ordenadas por posición de la sección y luego por ranking
+        Map<UUID, ProductSectionDTO> sections = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            ProductSectionDTO section = sections.computeIfAbsent((UUID) row[0], id -> {
+                ProductSectionDTO dto = new ProductSectionDTO();
+                dto.setId(id);
+                dto.setCategoryId((UUID) row[1]);
+                dto.setMaxProducts((Integer) row[2]);
+                dto.setPosition((Integer) row[3]);
+                dto.setProducts(new ArrayList<>());
+                return dto;
+            });
+            ProductDTO product = row[4] != null ? products.get((UUID) row[4]) : null;
+            if (product != null) {
+                section.getProducts().add(product);
+            }
+        }
+        return new ArrayList<>(sections.values());
+    }
+
     public ProductSectionDTO saveProductSection(ProductSectionDTO dto) {
         Category category = categoryRepository.findById(dto.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -78,7 +137,9 @@ public class AppConfigService {
         section.setCategory(category);
         section.setMaxProducts(dto.getMaxProducts() != null ? dto.getMaxProducts() : 8);
         section.setPosition(dto.getPosition());
-        return ProductSectionMapper.toDTO(sectionRepo.save(section));
+        ProductSectionDTO saved = ProductSectionMapper.toDTO(sectionRepo.save(section));
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
+        return saved;
     }
 
     public void updateProductSection(UUID id, ProductSectionDTO dto) {
@@ -88,11 +149,13 @@ public class AppConfigService {
         if (null != existing) {
             ProductSection update = ProductSectionMapper.toEntity(dto);
             sectionRepo.save(update);
+            eventPublisher.publishEvent(new HomeConfigChangedEvent());
         }
 
     }
 
     public void deleteProductSection(UUID id) {
         sectionRepo.deleteById(id);
+        eventPublisher.publishEvent(new HomeConfigChangedEvent());
     }
 }
@@ -7,12 +7,14 @@ import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
 import com.tambo.tambo_delivery_backend.dto.request.BrandRequest;
 import com.tambo.tambo_delivery_backend.dto.response.BrandDTO;
 import com.tambo.tambo_delivery_backend.entities.Brand;
@@ -28,6 +30,8 @@ public class BrandService {
 
     private final BrandRepository brandRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     public BrandDTO createBrand(BrandRequest request) {
         Preconditions.checkNotNull(request, "La solicitud no puede ser nula");
         Preconditions.checkArgument(
@@ -85,6 +89,7 @@ public class BrandService {
         // Actualizamos el caché
         BrandDTO updatedDTO = mapToDTO(updated);
         brandCache.put(id, updatedDTO);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
 
         return updatedDTO;
     }
@@ -96,6 +101,7 @@ public class BrandService {
 
         // Invalidamos la entrada en el caché
         brandCache.invalidate(id);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
     }
 
     private BrandDTO mapToDTO(Brand brand) {
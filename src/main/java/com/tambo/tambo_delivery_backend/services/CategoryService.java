@@ -5,9 +5,11 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
 import com.tambo.tambo_delivery_backend.dto.request.CategoryRequestDTO;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryDTO;
 import com.tambo.tambo_delivery_backend.entities.Category;
@@ -23,6 +25,8 @@ public class CategoryService {
     private CategoryRepository categoryRepository;
     @Autowired
     private CategoryTypeRepository categoryTypeRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // Obtener todas las categorias
     public List<CategoryDTO> getAllCategories() {
@@ -74,6 +78,7 @@ public class CategoryService {
         }
 
         Category updated = categoryRepository.save(existing);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
         return CategoryMapper.toDTO(updated);
     }
 
@@ -83,5 +88,6 @@ public class CategoryService {
             throw new RuntimeException("Category not found");
         }
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
     }
 }
@@ -5,9 +5,11 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
 import com.tambo.tambo_delivery_backend.dto.request.CategoryTypeRequestDTO;
 import com.tambo.tambo_delivery_backend.dto.response.CategoryTypeDTO;
 import com.tambo.tambo_delivery_backend.entities.Category;
@@ -25,6 +27,9 @@ public class CategoryTypeService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Obtener todos los tipos de categoría
     public List<CategoryTypeDTO> getAllCategoryTypes() {
         return categoryTypeRepository.findAll().stream()
@@ -81,6 +86,7 @@ public class CategoryTypeService {
         existing.setDescription(dto.getDescription());
 
         CategoryType updated = categoryTypeRepository.save(existing);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
         return CategoryTypeMapper.toDTO(updated);
     }
 
@@ -91,5 +97,6 @@ public class CategoryTypeService {
             throw new RuntimeException("Tipo de categoría con id " + id + " no encontrado");
         }
         categoryTypeRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.all());
     }
 }
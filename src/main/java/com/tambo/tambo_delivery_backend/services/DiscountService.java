@@ -5,9 +5,11 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.tambo.tambo_delivery_backend.catalog.DiscountChangedEvent;
 import com.tambo.tambo_delivery_backend.dto.request.DiscountRequestDTO;
 import com.tambo.tambo_delivery_backend.dto.response.DiscountDTO;
 import com.tambo.tambo_delivery_backend.entities.Discount;
@@ -26,10 +28,13 @@ public class DiscountService {
 
     private final DiscountMapper discountMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     // Crear un nuevo descuento
     public DiscountDTO createDiscount(DiscountRequestDTO request) {
         Discount discount = discountMapper.toEntity(request);
         Discount saved = discountRepository.save(discount);
+        eventPublisher.publishEvent(new DiscountChangedEvent(saved.getId()));
         return discountMapper.toDTO(saved);
     }
 
@@ -56,12 +61,14 @@ public class DiscountService {
         Discount updatedEntity = discountMapper.toEntity(request);
         updatedEntity.setId(existing.getId());
         Discount saved = discountRepository.save(updatedEntity);
+        eventPublisher.publishEvent(new DiscountChangedEvent(saved.getId()));
         return discountMapper.toDTO(saved);
     }
 
     // Eliminar un descuento
     public void deleteDiscount(UUID id) {
         discountRepository.deleteById(id);
+        eventPublisher.publishEvent(new DiscountChangedEvent(id));
     }
 
 }
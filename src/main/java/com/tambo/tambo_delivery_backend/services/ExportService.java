@@ -138,7 +138,7 @@ public class ExportService {
                 // Productos
                 Cell productsCell = row.createCell(3);
                 String products = order.getOrderItemList().stream()
-                        .map(item -> item.getProduct().getName() + " (" + item.getQuantity() + ")")
+                        .map(item -> item.getProductName() + " (" + item.getQuantity() + ")")
                         .collect(Collectors.joining("\n"));
                 productsCell.setCellValue(products);
                 productsCell.setCellStyle(wrapStyle);
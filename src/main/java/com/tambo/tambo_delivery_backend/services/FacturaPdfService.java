@@ -70,7 +70,7 @@ public class FacturaPdfService {
                 BigDecimal quantity = BigDecimal.valueOf(item.getQuantity());
                 BigDecimal total = price.multiply(quantity);
 
-                table.addCell(new PdfPCell(new Phrase(item.getProduct().getName(), normalFont)));
+                table.addCell(new PdfPCell(new Phrase(item.getProductName(), normalFont)));
                 table.addCell(new PdfPCell(new Phrase(String.valueOf(item.getQuantity()), normalFont)));
                 table.addCell(new PdfPCell(new Phrase("S/ " + total.toString(), normalFont)));
             }
@@ -1,36 +1,55 @@
 package com.tambo.tambo_delivery_backend.services;
 
+import java.math.BigDecimal;
 import java.security.Principal;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.apache.coyote.BadRequestException;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.collect.ImmutableList;
 import com.tambo.tambo_delivery_backend.auth.dto.response.OrderResponse;
 import com.tambo.tambo_delivery_backend.auth.dto.response.UserDetailsDto;
 import com.tambo.tambo_delivery_backend.auth.entities.User;
-import com.tambo.tambo_delivery_backend.auth.services.EmailService;
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
+import com.tambo.tambo_delivery_backend.dto.request.OrderItemRequest;
 import com.tambo.tambo_delivery_backend.dto.request.OrderRequest;
 import com.tambo.tambo_delivery_backend.dto.response.OrderDetails;
 import com.tambo.tambo_delivery_backend.dto.response.OrderItemDetail;
+import com.tambo.tambo_delivery_backend.dto.response.OrderPageDTO;
 import com.tambo.tambo_delivery_backend.entities.Order;
 import com.tambo.tambo_delivery_backend.entities.OrderItem;
 import com.tambo.tambo_delivery_backend.entities.OrderStatus;
 import com.tambo.tambo_delivery_backend.entities.Payment;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
 import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
 import com.tambo.tambo_delivery_backend.entities.Product;
 import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.exceptions.InsufficientStockEx;
+import com.tambo.tambo_delivery_backend.exceptions.InvalidOrderEx;
+import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.helper.KeysetCursor;
 import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.orders.OrderEventLog;
+import com.tambo.tambo_delivery_backend.repositories.OrderItemRepository;
 import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
 import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+import com.tambo.tambo_delivery_backend.specification.OrderSpecification;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -40,15 +59,20 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class OrderService {
 
+    // Margen por redondeo entre el precio mostrado al cliente y el calculado aquí
+    private static final BigDecimal PRICE_TOLERANCE = new BigDecimal("0.01");
+
+    // Orden estable para la paginación keyset: más recientes primero, id como desempate
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private UserDetailsService userDetailsService;
 
     @Autowired
     private OrderRepository orderRepository;
 
-    @Autowired
-    private ProductService productService;
-
     @Autowired
     ProductMapper productMapper;
 
@@ -56,13 +80,19 @@ public class OrderService {
     private ProductRepository productRepository;
 
     @Autowired
-    private EmailService emailService;
+    private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private BoletaPdfService boletaPdfService;
+    private OrderEventLog orderEventLog;
 
     @Autowired
-    private FacturaPdfService facturaPdfService;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private DiscountPricingIndex discountPricing;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Transactional
     public OrderResponse createOrder(OrderRequest orderRequest, Principal principal) throws Exception {
@@ -92,29 +122,39 @@ public class OrderService {
                 .razonSocial(orderRequest.getBusinessName())
                 .build();
 
+        // Todos los productos de la cesta en una sola consulta (IN) y validación en memoria
+        Map<UUID, Product> products = productRepository.findAllById(orderRequest.getOrderItemRequests().stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         List<OrderItem> orderItems = orderRequest.getOrderItemRequests().stream().map(orderItemRequest -> {
-            try {
-                Product product = productService.getProductEntityById(orderItemRequest.getProductId());
-                
-                // Si no viene itemPrice, usar el precio del producto
-                Double itemPrice = orderItemRequest.getItemPrice() != null 
-                    ? orderItemRequest.getItemPrice() 
+            Product product = products.get(orderItemRequest.getProductId());
+            validateItem(orderItemRequest, product);
+
+            // Si no viene itemPrice, usar el precio del producto
+            Double itemPrice = orderItemRequest.getItemPrice() != null
+                    ? orderItemRequest.getItemPrice()
                     : product.getPrice().doubleValue();
-                
-                OrderItem orderItem = OrderItem.builder()
-                        .product(product)
-                        .quantity(orderItemRequest.getQuantity())
-                        .order(order)
-                        .itemPrice(itemPrice)
-                        .build();
-                return orderItem;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+
+            OrderItem orderItem = OrderItem.builder()
+                    .product(product)
+                    .quantity(orderItemRequest.getQuantity())
+                    .order(order)
+                    .itemPrice(itemPrice)
+                    .productName(product.getName())
+                    .productThumbnail(ProductMapper.getProductThumbnail(product.getResources()))
+                    .build();
+            return orderItem;
         }).toList();
 
         order.setOrderItemList(orderItems);
 
+        // El stock se reserva al crear la orden; se devuelve si se cancela o falla
+        stockReservationService.reserve(orderItems);
+        order.setStockReserved(true);
+
         Payment payment = new Payment();
         payment.setOrder(order);
         payment.setPaymentDate(new Date());
@@ -124,6 +164,7 @@ public class OrderService {
         order.setPayment(payment);
 
         Order savedOrder = orderRepository.save(order);
+        orderEventLog.append(savedOrder, null);
 
         OrderResponse orderResponse = OrderResponse.builder()
                 .paymentMethod(orderRequest.getPaymentMethod())
@@ -134,85 +175,121 @@ public class OrderService {
 
     }
 
-    @Transactional
-    public void updateOrderStatus(UUID orderId, OrderStatus status, String transactionId) {
-        try {
-            // 1. Validar parámetros
-            if (orderId == null) {
-                throw new IllegalArgumentException("ID de orden no puede ser nulo");
-            }
-
-            if (status == null) {
-                throw new IllegalArgumentException("Estado no puede ser nulo");
+    // Comprobaciones previas a la reserva; el stock definitivo lo decide la reserva atómica
+    private void validateItem(OrderItemRequest request, Product product) {
+        if (product == null) {
+            throw new ResourceNotFoundEx("Product Not Found!");
+        }
+        if (!product.isActive()) {
+            throw new InvalidOrderEx("El producto no está disponible: " + product.getName());
+        }
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new InvalidOrderEx("Cantidad inválida para el producto: " + product.getName());
+        }
+        if (product.getStock() < request.getQuantity()) {
+            throw new InsufficientStockEx("Stock insuficiente para el producto: " + product.getName()
+                    + ". Stock actual: " + product.getStock()
+                    + ", cantidad solicitada: " + request.getQuantity());
+        }
+        // El precio enviado no puede ser menor que el precio con el descuento vigente, calculado con
+        // la misma regla que el catálogo (si se solapan varios descuentos, el mayor)
+        if (request.getItemPrice() != null) {
+            BigDecimal minimum = ProductMapper.applyDiscount(product.getPrice(),
+                    discountPricing.percentageOf(product.getId()));
+            if (BigDecimal.valueOf(request.getItemPrice()).compareTo(minimum.subtract(PRICE_TOLERANCE)) < 0) {
+                throw new InvalidOrderEx("Precio inválido para el producto: " + product.getName());
             }
+        }
+    }
 
-            // 2. Obtener la orden
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new BadRequestException("Orden no encontrada"));
+    @Transactional
+    public void updateOrderStatus(UUID orderId, OrderStatus status, String transactionId) {
+        // 1. Validar parámetros
+        if (orderId == null) {
+            throw new IllegalArgumentException("ID de orden no puede ser nulo");
+        }
 
-            // 3. Actualizar stock si el status es PAID
-            if (status == OrderStatus.PAID) {
-                List<OrderItem> orderItems = order.getOrderItemList();
+        if (status == null) {
+            throw new IllegalArgumentException("Estado no puede ser nulo");
+        }
 
-                for (OrderItem item : orderItems) {
-                    // Obtener el producto asociado al item
-                    Product product = item.getProduct();
+        // 2. Obtener la orden, bloqueada hasta el commit
+        Order order = orderRepository.findWithPaymentAndItemsById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundEx("Orden no encontrada"));
 
-                    // Validar que haya suficiente stock
-                    if (product.getStock() < item.getQuantity()) {
-                        throw new IllegalStateException(
-                                "Stock insuficiente para el producto: " + product.getName() +
-                                        ". Stock actual: " + product.getStock() +
-                                        ", cantidad solicitada: " + item.getQuantity());
-                    }
+        // 3. Validar transición de estado
+        if (!isValidStatusTransition(order.getOrderStatus(), status)) {
+            throw new IllegalStateException("Transición de estado no permitida");
+        }
 
-                    // Actualizar el stock restando la cantidad comprada
-                    int newStock = product.getStock() - item.getQuantity();
-                    product.setStock(newStock);
+        // 4. Stock, estado, pago y evento. Los errores llegan al llamador: la transacción
+        // ya quedó marcada para rollback y no debe parecer que la orden cambió
+        applyTransition(order, status, transactionId);
+        orderRepository.save(order);
+    }
 
-                    if (newStock == 0) {
-                        product.setActive(false);
-                    }
+    public record StatusTransition(UUID orderId, OrderStatus status, String transactionId) {
+    }
 
-                    // Guardar el producto actualizado
-                    productRepository.save(product);
+    // Transiciones en bloque (conciliación de pagos), cada orden en su propia transacción: una
+    // orden que falla (p. ej. sin stock al pagar) se registra y no deshace las demás ni bloquea
+    // las pasadas siguientes. Solo se aplican a las que siguen en expectedStatus; las que
+    // cambiaron mientras tanto (p. ej. confirmadas por el cliente) se omiten. Devuelve las aplicadas
+    public int applyStatusTransitions(OrderStatus expectedStatus, List<StatusTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, StatusTransition> byOrder = transitions.stream()
+                .collect(Collectors.toMap(StatusTransition::orderId, Function.identity(), (a, b) -> b));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int applied = 0;
+        for (StatusTransition transition : byOrder.values()) {
+            try {
+                if (Boolean.TRUE.equals(transaction.execute(status -> applyIfStill(expectedStatus, transition)))) {
+                    applied++;
                 }
-
+            } catch (RuntimeException e) {
+                log.warn("No se pudo pasar la orden {} a {}: {}", transition.orderId(), transition.status(),
+                        e.getMessage());
             }
+        }
+        return applied;
+    }
 
-            // 4. Validar transición de estado
-            if (!isValidStatusTransition(order.getOrderStatus(), status)) {
-                throw new IllegalStateException("Transición de estado no permitida");
-            }
+    private boolean applyIfStill(OrderStatus expectedStatus, StatusTransition transition) {
+        Order order = orderRepository.findWithPaymentAndItemsById(transition.orderId()).orElse(null);
+        if (order == null || order.getOrderStatus() != expectedStatus
+                || !isValidStatusTransition(order.getOrderStatus(), transition.status())) {
+            return false;
+        }
+        applyTransition(order, transition.status(), transition.transactionId());
+        return true;
+    }
 
-            // 5. Actualizar estado
-            order.setOrderStatus(status);
+    private void applyTransition(Order order, OrderStatus status, String transactionId) {
+        // Stock: las órdenes reservan al crearse; las que no tienen reserva (anteriores a la
+        // reserva o ya canceladas) la toman al pagar. Al cancelar o fallar se devuelve
+        if (status == OrderStatus.PAID && !order.isStockReserved()) {
+            stockReservationService.reserve(order.getOrderItemList());
+            order.setStockReserved(true);
+        } else if ((status == OrderStatus.CANCELLED || status == OrderStatus.FAILED)
+                && order.isStockReserved()) {
+            stockReservationService.release(order.getOrderItemList());
+            order.setStockReserved(false);
+        }
 
-            // 6. Actualizar pago si existe
-            if (order.getPayment() != null) {
-                updatePaymentStatus(order.getPayment(), status, transactionId);
-            }
+        OrderStatus previousStatus = order.getOrderStatus();
+        order.setOrderStatus(status);
 
-            orderRepository.save(order);
-            // Si se pagó, enviar boleta
-            if (status == OrderStatus.PAID) {
-
-                try {
-                    if (order.getReceiptType() == ReceiptType.BOLETA) {
-                        byte[] pdf = boletaPdfService.generateBoletaPdf(order);
-                        emailService.sendBoletaEmail(order, pdf);
-                    } else if (order.getReceiptType() == ReceiptType.FACTURA) {
-                        byte[] pdf = facturaPdfService.generateFacturaPdf(order);
-                        emailService.sendFacturaEmail(order, pdf);
-                    }
-                } catch (Exception e) {
-                    log.error("Error al enviar el comprobante de pago: {}", e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Error al actualizar el estado de la orden: " + e.getMessage());
+        if (order.getPayment() != null) {
+            updatePaymentStatus(order.getPayment(), status, transactionId);
         }
 
+        // Los efectos posteriores (comprobante, correos) se disparan desde order_events
+        if (previousStatus != status) {
+            orderEventLog.append(order, previousStatus);
+        }
     }
 
     private void updatePaymentStatus(Payment payment, OrderStatus status, String transactionId) {
@@ -238,10 +315,9 @@ public class OrderService {
         return true;
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDetails> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToOrderDetails)
-                .collect(ImmutableList.toImmutableList());
+        return ImmutableList.copyOf(convertToOrderDetails(orderRepository.findAll()));
     }
 
     // Método adicional para obtener la orden
@@ -256,7 +332,7 @@ public class OrderService {
 
             Order order = orderRepository.findById(id).orElse(null);
 
-            OrderDetails orderDto = convertToOrderDetails(order);
+            OrderDetails orderDto = convertToOrderDetails(List.of(order)).get(0);
 
             return orderDto;
 
@@ -274,9 +350,7 @@ public class OrderService {
                 throw new IllegalArgumentException("Usuario no encontrado");
             }
 
-            return orderRepository.findByUserWithItemsAndAddress(user).stream()
-                    .map(this::convertToOrderDetails)
-                    .collect(Collectors.toList());
+            return convertToOrderDetails(orderRepository.findByUserOrderByOrderDateDescIdDesc(user));
 
         } catch (Exception e) {
             log.error("Error al obtener órdenes del usuario: {}", email, e);
@@ -284,7 +358,7 @@ public class OrderService {
         }
     }
 
-    private OrderDetails convertToOrderDetails(Order order) {
+    private OrderDetails convertToOrderDetails(Order order, List<OrderItemDetail> items) {
         return OrderDetails.builder()
                 .id(order.getId())
                 .orderDate(order.getOrderDate())
@@ -295,27 +369,19 @@ public class OrderService {
                 .longitude(order.getLongitude())
                 // .address(convertToAddressDto(order.getAddress()))
                 .totalAmount(order.getTotalAmount())
-                .orderItemList(convertToItemDetails(order.getOrderItemList()))
+                .orderItemList(items)
                 .expectedDeliveryDate(order.getExpectedDeliveryDate())
                 .build();
     }
 
-    private List<OrderItemDetail> convertToItemDetails(List<OrderItem> items) {
-        if (items == null || items.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return items.stream()
-                .map(this::convertToItemDetail)
-                .collect(Collectors.toList());
-    }
-
-    private OrderItemDetail convertToItemDetail(OrderItem item) {
+    private static OrderItemDetail convertToItemDetail(Object[] row) {
         return OrderItemDetail.builder()
-                .id(item.getId())
-                .product(item.getProduct())
-                .quantity(item.getQuantity())
-                .itemPrice(item.getItemPrice())
+                .id((UUID) row[1])
+                .productId((UUID) row[2])
+                .productName((String) row[3])
+                .productThumbnail((String) row[4])
+                .quantity((Integer) row[5])
+                .itemPrice((Double) row[6])
                 .build();
     }
 
@@ -338,12 +404,89 @@ public class OrderService {
         return orderRepository.findAllByOrderByOrderDateDesc();
     }
 
+    // Lista completa (sin paginar); para historiales grandes usar searchOrders
+    @Transactional(readOnly = true)
     public List<OrderDetails> getAllOrdersSortedByDate() {
-        return orderRepository.findAllByOrderByOrderDateDesc().stream()
-                .map(this::convertToOrderDetails)
+        List<Order> orders = orderRepository.findBy(Specification.<Order>allOf(),
+                q -> q.project(OrderRepository.LISTING_GRAPH).sortBy(KEYSET_SORT).all());
+        return convertToOrderDetails(orders);
+    }
+
+    // Búsqueda de órdenes del admin con filtros y paginación por cursor (keyset)
+    @Transactional(readOnly = true)
+    public OrderPageDTO searchOrders(OrderStatus status, Date from, Date to, UUID userId,
+            PaymentMethod paymentMethod, ReceiptType receiptType, String cursor, int size) {
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Specification<Order> spec = Specification.allOf();
+        if (status != null) {
+            spec = spec.and(OrderSpecification.hasStatus(status));
+        }
+        if (from != null) {
+            spec = spec.and(OrderSpecification.placedFrom(from));
+        }
+        if (to != null) {
+            spec = spec.and(OrderSpecification.placedBefore(to));
+        }
+        if (userId != null) {
+            spec = spec.and(OrderSpecification.hasUserId(userId));
+        }
+        if (paymentMethod != null) {
+            spec = spec.and(OrderSpecification.hasPaymentMethod(paymentMethod));
+        }
+        if (receiptType != null) {
+            spec = spec.and(OrderSpecification.hasReceiptType(receiptType));
+        }
+        if (StringUtils.isNotBlank(cursor)) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            spec = spec.and(OrderSpecification.isAfterCursor(after.timestamp(), after.id()));
+        }
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<Order> rows = orderRepository.findBy(spec, q -> q.project(OrderRepository.LISTING_GRAPH)
+                .sortBy(KEYSET_SORT)
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Order> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return OrderPageDTO.builder()
+                .items(convertToOrderDetails(page))
+                .nextCursor(hasMore ? KeysetCursor.encode(last.getOrderDate(), last.getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Convierte una página de órdenes leyendo las líneas de todas ellas en una sola consulta
+    private List<OrderDetails> convertToOrderDetails(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, List<OrderItemDetail>> itemsByOrder = orderItemRepository
+                .findLinesByOrderIdIn(orders.stream().map(Order::getId).toList()).stream()
+                .collect(Collectors.groupingBy(row -> (UUID) row[0],
+                        Collectors.mapping(OrderService::convertToItemDetail, Collectors.toList())));
+        return orders.stream()
+                .map(order -> convertToOrderDetails(order, itemsByOrder.getOrDefault(order.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
+    // Las líneas creadas antes de guardar la copia del producto se completan una vez al arrancar
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOrderItemSnapshots() {
+        try {
+            int filled = orderItemRepository.backfillProductSnapshots();
+            if (filled > 0) {
+                log.info("Copia del producto completada en {} líneas de órdenes", filled);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudo completar la copia del producto en las líneas de órdenes", e);
+        }
+    }
+
     public boolean canOrderBeCancelled(UUID orderId) {
         Order order = orderRepository.findById(orderId).orElse(null);
 
@@ -3,6 +3,12 @@ package com.tambo.tambo_delivery_backend.services;
 import com.paypal.orders.*;
 import com.paypal.http.HttpResponse;
 import com.paypal.http.exceptions.HttpException;
+import com.tambo.tambo_delivery_backend.exceptions.PaymentGatewayUnavailableEx;
+import com.tambo.tambo_delivery_backend.helper.CircuitBreaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -10,61 +16,146 @@ import com.paypal.core.PayPalEnvironment;
 import com.paypal.core.PayPalHttpClient;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+// Adaptador de PayPal: cada llamada pasa por un bulkhead (máximo de llamadas simultáneas) y un
+// cortocircuito, de modo que un PayPal lento o caído rechaza al instante en lugar de ocupar los
+// hilos de Tomcat. Las conexiones HTTP se reutilizan con keep-alive: HttpURLConnection guarda hasta
+// http.maxConnections por destino, que TamboDeliveryBackendApplication.main fija a 20 (igual que
+// paypal.max-concurrent-calls) salvo que se pase -Dhttp.maxConnections a la JVM.
+@Slf4j
 @Service
 public class PayPalService {
 
     private final PayPalHttpClient client;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final CircuitBreaker circuitBreaker;
 
     public PayPalService(
             @Value("${paypal.client.id}") String clientId,
             @Value("${paypal.client.secret}") String clientSecret,
-            @Value("${paypal.mode}") String mode) {
+            @Value("${paypal.mode}") String mode,
+            @Value("${paypal.base-url:}") String baseUrl,
+            @Value("${paypal.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${paypal.read-timeout-ms:10000}") int readTimeoutMs,
+            @Value("${paypal.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${paypal.bulkhead-wait-ms:200}") long bulkheadWaitMs,
+            @Value("${paypal.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${paypal.circuit.open-ms:30000}") long openMs) {
 
-        PayPalEnvironment environment = "live".equalsIgnoreCase(mode)
-                ? new PayPalEnvironment.Live(clientId, clientSecret)
-                : new PayPalEnvironment.Sandbox(clientId, clientSecret);
+        PayPalEnvironment environment;
+        if (StringUtils.isNotBlank(baseUrl)) {
+            // Servidor alternativo (pruebas o mocks locales)
+            environment = new PayPalEnvironment(clientId, clientSecret, baseUrl, baseUrl);
+        } else {
+            environment = "live".equalsIgnoreCase(mode)
+                    ? new PayPalEnvironment.Live(clientId, clientSecret)
+                    : new PayPalEnvironment.Sandbox(clientId, clientSecret);
+        }
 
         this.client = new PayPalHttpClient(environment);
+        this.client.setConnectTimeout(connectTimeoutMs);
+        this.client.setReadTimeout(readTimeoutMs);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.circuitBreaker = new CircuitBreaker("paypal", failureThreshold, Duration.ofMillis(openMs));
     }
 
+    // Captura directa (un solo viaje en el caso normal); solo se consulta la orden si PayPal
+    // indica que ya estaba capturada
     public Order captureOrder(String paypalOrderId) throws IOException {
-        try {
-            // 1. Primero verificar el estado actual de la orden
-            OrdersGetRequest getRequest = new OrdersGetRequest(paypalOrderId);
-            HttpResponse<Order> getResponse = client.execute(getRequest);
-            Order order = getResponse.result();
-
-            // 2. Si ya está completada, retornarla directamente
-            if ("COMPLETED".equals(order.status())) {
-                return order;
+        return call(() -> {
+            OrdersCaptureRequest captureRequest = new OrdersCaptureRequest(paypalOrderId);
+            captureRequest.requestBody(new OrderRequest());
+            // Misma clave en cada reintento: PayPal devuelve la captura ya hecha en lugar de repetirla
+            captureRequest.payPalRequestId("capture-" + paypalOrderId);
+            // Respuesta completa: incluye las capturas con su importe para compararlo con la orden
+            captureRequest.prefer("return=representation");
+            try {
+                return client.execute(captureRequest).result();
+            } catch (HttpException e) {
+                if (e.getMessage() != null && e.getMessage().contains("ORDER_ALREADY_CAPTURED")) {
+                    HttpResponse<Order> getResponse = client.execute(new OrdersGetRequest(paypalOrderId));
+                    return getResponse.result();
+                }
+                if (e.statusCode() == 422) {
+                    // Orden no aprobada por el comprador u otro rechazo de negocio
+                    throw new RuntimeException("PayPal rechazó la captura: " + e.getMessage());
+                }
+                throw e;
             }
+        });
+    }
 
-            // 3. Si no está aprobada, no podemos capturarla
-            if (!"APPROVED".equals(order.status())) {
-                throw new RuntimeException("La orden no está en estado aprobado. Estado actual: " + order.status());
+    // Estado actual de la orden en PayPal; null si PayPal no la conoce
+    public Order getOrder(String paypalOrderId) throws IOException {
+        return call(() -> {
+            try {
+                return client.execute(new OrdersGetRequest(paypalOrderId)).result();
+            } catch (HttpException e) {
+                if (e.statusCode() == 404) {
+                    return null;
+                }
+                throw e;
             }
+        });
+    }
 
-            // 4. Intentar capturar solo si está aprobada
-            OrdersCaptureRequest captureRequest = new OrdersCaptureRequest(paypalOrderId);
-            captureRequest.requestBody(new OrderRequest());
-
-            HttpResponse<Order> captureResponse = client.execute(captureRequest);
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
 
-            if (captureResponse.statusCode() != 201) {
-                throw new RuntimeException("Error al capturar pago. Código: " + captureResponse.statusCode());
+    private <T> T call(PayPalCall<T> call) throws IOException {
+        if (!acquireBulkhead()) {
+            throw new PaymentGatewayUnavailableEx("PayPal está saturado, inténtalo de nuevo en unos segundos");
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new PaymentGatewayUnavailableEx("PayPal no está disponible temporalmente");
             }
-
-            return captureResponse.result();
-        } catch (HttpException e) {
-            // Manejo específico de errores de PayPal
-            if (e.getMessage().contains("ORDER_ALREADY_CAPTURED")) {
-                // Si ya estaba capturada, obtener los detalles nuevamente
-                OrdersGetRequest getRequest = new OrdersGetRequest(paypalOrderId);
-                HttpResponse<Order> getResponse = client.execute(getRequest);
-                return getResponse.result();
+            try {
+                T result = call.execute();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (IOException e) {
+                if (isGatewayFailure(e)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                throw new IOException("Error en PayPal: " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                // PayPal respondió; el error es de negocio
+                circuitBreaker.onSuccess();
+                throw e;
             }
-            throw new IOException("Error en PayPal: " + e.getMessage());
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Timeouts, errores de red, 5xx y 429 cuentan como fallo del servicio; el resto de 4xx no
+    private static boolean isGatewayFailure(IOException e) {
+        if (e instanceof HttpException http) {
+            return http.statusCode() >= 500 || http.statusCode() == 429;
         }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface PayPalCall<T> {
+        T execute() throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.tambo.tambo_delivery_backend.services;
 
 import com.tambo.tambo_delivery_backend.dto.request.CreateProductDtoAdmin;
 import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductPageDTO;
 import com.tambo.tambo_delivery_backend.entities.Product;
 
 import java.math.BigDecimal;
@@ -15,6 +16,9 @@ public interface ProductService {
     public List<ProductDTO> getAllProducts(UUID categoryId, UUID typeId, String name, BigDecimal minPrice,
             BigDecimal maxPrice, Boolean active, Boolean newArrival);
 
+    ProductPageDTO searchProducts(UUID categoryId, UUID typeId, String name, BigDecimal minPrice,
+            BigDecimal maxPrice, Boolean active, Boolean newArrival, String cursor, int size);
+
     ProductDTO getProductBySlug(String slug);
 
     ProductDTO getProductById(UUID id);
@@ -1,9 +1,13 @@
 package com.tambo.tambo_delivery_backend.services;
 
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
 import com.tambo.tambo_delivery_backend.dto.request.CreateProductDtoAdmin;
 import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductPageDTO;
 import com.tambo.tambo_delivery_backend.entities.*;
 import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.helper.KeysetCursor;
 import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
 import com.tambo.tambo_delivery_backend.repositories.BrandRepository;
 import com.tambo.tambo_delivery_backend.repositories.CategoryRepository;
@@ -18,6 +22,8 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +43,13 @@ public class ProductServiceImpl implements ProductService {
         private final CategoryTypeRepository categoryTypeRepository;
         private final DiscountRepository discountRepository;
         private final BrandRepository brandRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final DiscountPricingIndex discountPricing;
+
+        // Orden estable para la paginación keyset: más recientes primero, id como desempate
+        private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+        private static final int MAX_PAGE_SIZE = 100;
 
         // Obtener todos los productos por filtros
         @Override
@@ -44,6 +57,49 @@ public class ProductServiceImpl implements ProductService {
         public List<ProductDTO> getAllProducts(UUID categoryId, UUID typeId, String name, BigDecimal minPrice,
                         BigDecimal maxPrice, Boolean active, Boolean newArrival) {
 
+                Specification<Product> spec = buildSpecification(categoryId, typeId, name, minPrice, maxPrice, active,
+                                newArrival);
+
+                return productRepository.findAll(spec).stream()
+                                .map(this::toDTO)
+                                .collect(Collectors.toList());
+        }
+
+        // Buscar productos por filtros con paginación por cursor (keyset)
+        @Override
+        @Transactional(readOnly = true)
+        public ProductPageDTO searchProducts(UUID categoryId, UUID typeId, String name, BigDecimal minPrice,
+                        BigDecimal maxPrice, Boolean active, Boolean newArrival, String cursor, int size) {
+
+                int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+                Specification<Product> spec = buildSpecification(categoryId, typeId, name, minPrice, maxPrice, active,
+                                newArrival);
+                if (StringUtils.isNotBlank(cursor)) {
+                        KeysetCursor after = KeysetCursor.decode(cursor);
+                        spec = spec.and(ProductSpecification.isAfterCursor(after.timestamp(), after.id()));
+                }
+
+                // Se pide un elemento extra para saber si existe una página siguiente
+                List<Product> rows = productRepository.findBy(spec, q -> q.project(ProductRepository.LISTING_GRAPH)
+                                .sortBy(KEYSET_SORT)
+                                .limit(pageSize + 1)
+                                .all());
+
+                boolean hasMore = rows.size() > pageSize;
+                List<Product> page = hasMore ? rows.subList(0, pageSize) : rows;
+                Product last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+                return ProductPageDTO.builder()
+                                .items(page.stream().map(this::toDTO).collect(Collectors.toList()))
+                                .nextCursor(hasMore ? KeysetCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                                .hasMore(hasMore)
+                                .build();
+        }
+
+        private Specification<Product> buildSpecification(UUID categoryId, UUID typeId, String name,
+                        BigDecimal minPrice, BigDecimal maxPrice, Boolean active, Boolean newArrival) {
+
                 Specification<Product> spec = Specification.where(null);
 
                 if (categoryId != null) {
@@ -69,9 +125,7 @@ public class ProductServiceImpl implements ProductService {
                                         : ProductSpecification.isNotNewArrival());
                 }
 
-                return productRepository.findAll(spec).stream()
-                                .map(ProductMapper::toDTO)
-                                .collect(Collectors.toList());
+                return spec;
         }
 
         // Agregar un nuevo producto
@@ -91,7 +145,8 @@ public class ProductServiceImpl implements ProductService {
 
                 Product product = ProductMapper.toEntity(dto, category, categoryType, brand, discounts);
                 Product saved = productRepository.save(product);
-                return ProductMapper.toDTO(saved);
+                eventPublisher.publishEvent(ProductCatalogChangedEvent.of(saved.getId()));
+                return toDTO(saved);
         }
 
         // Obtener todos los productos por categoria
@@ -100,7 +155,7 @@ public class ProductServiceImpl implements ProductService {
         public ProductDTO getProductBySlug(String slug) {
                 Product product = productRepository.findBySlug(slug)
                                 .orElseThrow(() -> new RuntimeException("Product not found"));
-                return ProductMapper.toDTO(product);
+                return toDTO(product);
         }
 
         // Obtener un producto Dto por ID
@@ -109,7 +164,7 @@ public class ProductServiceImpl implements ProductService {
         public ProductDTO getProductById(UUID id) {
                 Product product = productRepository.findById(id)
                                 .orElseThrow(() -> new ResourceNotFoundEx("Product Not Found!"));
-                return ProductMapper.toDTO(product);
+                return toDTO(product);
         }
 
         // Obtener un producto Dto por ID
@@ -134,7 +189,11 @@ public class ProductServiceImpl implements ProductService {
                 existing.setStock(dto.getStock());
                 existing.setPrice(dto.getPrice());
                 existing.setNewArrival(dto.getIsNewArrival());
-                existing.setActive(dto.getIsActive());
+                // Si el administrador cambia el estado, su decisión prevalece sobre la reactivación automática
+                if (existing.isActive() != dto.getIsActive()) {
+                        existing.setActive(dto.getIsActive());
+                        existing.setAutoDeactivated(false);
+                }
 
                 // ========== ACTUALIZAR BRAND ==========
                 Brand brand = brandRepository.findById(dto.getBrandId())
@@ -198,7 +257,8 @@ public class ProductServiceImpl implements ProductService {
 
                 // ========== GUARDAR ==========
                 Product updated = productRepository.save(existing);
-                return ProductMapper.toDTO(updated);
+                eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id));
+                return toDTO(updated);
         }
 
         @Override
@@ -221,6 +281,7 @@ public class ProductServiceImpl implements ProductService {
 
                         // Eliminar producto de la base de datos
                         productRepository.deleteById(id);
+                        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(id));
                         return true;
 
                 } catch (Exception e) {
@@ -229,4 +290,9 @@ public class ProductServiceImpl implements ProductService {
                 }
         }
 
+        // Mismo porcentaje que el catálogo: el del índice de descuentos (gana el mayor)
+        private ProductDTO toDTO(Product product) {
+                return ProductMapper.toDTO(product, discountPricing.percentageOf(product.getId()));
+        }
+
 }
@@ -0,0 +1,93 @@
+package com.tambo.tambo_delivery_backend.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+import com.tambo.tambo_delivery_backend.exceptions.InsufficientStockEx;
+import com.tambo.tambo_delivery_backend.repositories.StockRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Reserva de stock con UPDATE condicionales atómicos: la base de datos decide si alcanza el stock,
+// así que dos pagos simultáneos no pueden vender la misma unidad. Toda la cesta va en un lote JDBC
+// y los productos se actualizan siempre en el mismo orden (por id) para que dos cestas no se
+// bloqueen mutuamente.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final StockRepository stockRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Todo o nada: si un producto no alcanza se devuelve lo ya reservado y se lanza InsufficientStockEx.
+    // La devolución ya se ha hecho al lanzarla, así que no marca para rollback la transacción de quien
+    // llama: puede capturarla y confirmar
+    @Transactional(noRollbackFor = InsufficientStockEx.class)
+    public void reserve(List<OrderItem> items) {
+        reserve(quantitiesByProduct(items));
+    }
+
+    @Transactional(noRollbackFor = InsufficientStockEx.class)
+    public void reserve(Map<UUID, Integer> quantities) {
+        List<Map.Entry<UUID, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        int[] counts = stockRepository.reserve(lines);
+
+        List<Map.Entry<UUID, Integer>> reserved = new ArrayList<>();
+        Map.Entry<UUID, Integer> missing = null;
+        for (int i = 0; i < lines.size(); i++) {
+            if (counts[i] == 0) {
+                missing = missing != null ? missing : lines.get(i);
+            } else {
+                reserved.add(lines.get(i));
+            }
+        }
+        if (missing != null) {
+            if (!reserved.isEmpty()) {
+                stockRepository.release(reserved);
+            }
+            throw new InsufficientStockEx("Stock insuficiente para el producto: " + missing.getKey()
+                    + ", cantidad solicitada: " + missing.getValue());
+        }
+        publishChange(quantities.keySet());
+    }
+
+    @Transactional
+    public void release(List<OrderItem> items) {
+        Map<UUID, Integer> quantities = quantitiesByProduct(items);
+        stockRepository.release(new ArrayList<>(quantities.entrySet()));
+        publishChange(quantities.keySet());
+    }
+
+    // Varias líneas del mismo producto se reservan juntas
+    private static Map<UUID, Integer> quantitiesByProduct(List<OrderItem> items) {
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cantidad inválida para el producto: "
+                        + item.getProduct().getId());
+            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // El stock forma parte del catálogo público
+    private void publishChange(Set<UUID> productIds) {
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductCatalogChangedEvent.of(Set.copyOf(productIds)));
+        }
+    }
+}
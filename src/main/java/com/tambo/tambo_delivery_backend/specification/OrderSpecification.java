@@ -0,0 +1,46 @@
+package com.tambo.tambo_delivery_backend.specification;
+
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.UUID;
+
+public class OrderSpecification {
+
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("orderStatus"), status);
+    }
+
+    public static Specification<Order> hasUserId(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Order> hasPaymentMethod(PaymentMethod paymentMethod) {
+        return (root, query, cb) -> cb.equal(root.get("paymentMethod"), paymentMethod);
+    }
+
+    public static Specification<Order> hasReceiptType(ReceiptType receiptType) {
+        return (root, query, cb) -> cb.equal(root.get("receiptType"), receiptType);
+    }
+
+    // Rango de fechas [from, to)
+    public static Specification<Order> placedFrom(Date from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+    }
+
+    public static Specification<Order> placedBefore(Date to) {
+        return (root, query, cb) -> cb.lessThan(root.get("orderDate"), to);
+    }
+
+    // Keyset: órdenes posteriores al cursor en el orden (orderDate DESC, id DESC)
+    public static Specification<Order> isAfterCursor(Date orderDate, UUID id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("orderDate"), orderDate),
+                cb.and(cb.equal(root.get("orderDate"), orderDate), cb.lessThan(root.get("id"), id)));
+    }
+
+}
@@ -4,6 +4,7 @@ import com.tambo.tambo_delivery_backend.entities.Product;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.Date;
 import java.util.UUID;
 
 public class ProductSpecification {
@@ -44,4 +45,11 @@ public class ProductSpecification {
         return (root, query, cb) -> cb.isFalse(root.get("isNewArrival"));
     }
 
+    // Keyset: productos posteriores al cursor en el orden (createdAt DESC, id DESC)
+    public static Specification<Product> isAfterCursor(Date createdAt, UUID id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+
 }
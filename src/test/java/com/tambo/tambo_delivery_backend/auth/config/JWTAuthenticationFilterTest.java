@@ -0,0 +1,147 @@
+package com.tambo.tambo_delivery_backend.auth.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.jsonwebtoken.Claims;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.tambo.tambo_delivery_backend.auth.entities.Authority;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
+import com.tambo.tambo_delivery_backend.auth.repositories.RevokedTokenRepository;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+import com.tambo.tambo_delivery_backend.auth.services.TokenRevocationService;
+import com.tambo.tambo_delivery_backend.auth.services.TokenVersionService;
+import com.tambo.tambo_delivery_backend.auth.services.UserChangedEvent;
+
+public class JWTAuthenticationFilterTest {
+
+    private static final String EMAIL = "admin@tambo.test";
+    private static final String SECRET = "RXN0YUVzTWlDbGF2ZVNlY3JldGFTdXBlclNlZ3VyYUNvbk1hc0RlMzJDYXJhY3RlcmVzISE=";
+
+    private UserDetailRepository userDetailRepository;
+    private TokenVersionService tokenVersionService;
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationService tokenRevocationService;
+    private JWTTokenHelper jwtTokenHelper;
+    private JWTAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        userDetailRepository = mock(UserDetailRepository.class);
+        tokenVersionService = new TokenVersionService(userDetailRepository, 30);
+        jwtTokenHelper = new JWTTokenHelper("authapp", SECRET, 3600, 100);
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1_000, 30_000);
+        filter = new JWTAuthenticationFilter(jwtTokenHelper, tokenVersionService, tokenRevocationService);
+
+        user = User.builder()
+                .email(EMAIL)
+                .enabled(true)
+                .authorities(List.of(
+                        Authority.builder().roleCode("ADMIN").roleDescription("Admin").build(),
+                        Authority.builder().roleCode("USER").roleDescription("User").build()))
+                .build();
+        when(userDetailRepository.findActiveTokenVersion(EMAIL)).thenReturn(0);
+    }
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAuthenticatesFromClaimsWithoutLoadingTheUser() throws Exception {
+        String token = jwtTokenHelper.generateToken(user);
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertEquals(EMAIL, first.getName());
+        assertEquals(Set.of("ADMIN", "USER"), first.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        assertEquals(EMAIL, second.getName());
+        // Solo la versión de tokens, y una vez mientras dure la caché
+        verify(userDetailRepository, times(1)).findActiveTokenVersion(EMAIL);
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() throws Exception {
+        String oldToken = jwtTokenHelper.generateToken(user);
+        user.revokeTokens();
+        when(userDetailRepository.findActiveTokenVersion(EMAIL)).thenReturn(1);
+        tokenVersionService.onUserChanged(new UserChangedEvent(EMAIL));
+
+        assertNull(authenticate(oldToken));
+        assertEquals(EMAIL, authenticate(jwtTokenHelper.generateToken(user)).getName());
+    }
+
+    @Test
+    public void testLoggedOutTokenIsRejectedWithoutTouchingOtherSessions() throws Exception {
+        String loggedOut = jwtTokenHelper.generateToken(user);
+        String otherSession = jwtTokenHelper.generateToken(user);
+        Claims claims = jwtTokenHelper.parseToken(loggedOut);
+
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+
+        assertNull(authenticate(loggedOut));
+        assertEquals(EMAIL, authenticate(otherSession).getName());
+        // El filtro de Bloom descarta el token no revocado sin consultar la base de datos
+        verify(revokedTokenRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testDisabledUserAndInvalidTokensAreRejected() throws Exception {
+        String token = jwtTokenHelper.generateToken(user);
+        int signature = token.lastIndexOf('.') + 1;
+        char tampered = token.charAt(signature) == 'A' ? 'B' : 'A';
+        assertNull(authenticate(token.substring(0, signature) + tampered + token.substring(signature + 1)));
+        assertNull(authenticate("no-es-un-jwt"));
+
+        when(userDetailRepository.findActiveTokenVersion(EMAIL)).thenReturn(null);
+        tokenVersionService.onUserChanged(new UserChangedEvent(EMAIL));
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    public void testVerifiedClaimsAreCachedUntilTheTokenExpires() throws Exception {
+        String token = jwtTokenHelper.generateToken(user);
+        assertSame(jwtTokenHelper.parseToken(token), jwtTokenHelper.parseToken(token));
+
+        JWTTokenHelper shortLived = new JWTTokenHelper("authapp", SECRET, 1, 100);
+        String expiring = shortLived.generateToken(user);
+        assertEquals(EMAIL, shortLived.getUserNameFromToken(expiring));
+        Thread.sleep(1_100);
+        assertNull(shortLived.parseToken(expiring));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
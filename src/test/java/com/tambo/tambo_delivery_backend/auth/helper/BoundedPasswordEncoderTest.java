@@ -0,0 +1,128 @@
+package com.tambo.tambo_delivery_backend.auth.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.tambo.tambo_delivery_backend.auth.dto.response.PasswordHashingStatsDTO;
+import com.tambo.tambo_delivery_backend.exceptions.PasswordHashingBusyEx;
+
+public class BoundedPasswordEncoderTest {
+
+    private final List<BoundedPasswordEncoder> encoders = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        encoders.forEach(BoundedPasswordEncoder::shutdown);
+    }
+
+    @Test
+    public void testLoginStormIsShedInsteadOfHoldingRequestThreads() throws Exception {
+        // Un hilo de hashing y dos en cola; cuenta cuántos hashes corren a la vez
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        PasswordEncoder bcrypt = bcrypt(10);
+        String stored = bcrypt.encode("secreto");
+        PasswordEncoder counting = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return bcrypt.matches(rawPassword, encodedPassword);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        BoundedPasswordEncoder encoder = track(new BoundedPasswordEncoder(counting, 10, 1, 2, 10_000));
+
+        int logins = 20;
+        ExecutorService requests = Executors.newFixedThreadPool(logins);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < logins; i++) {
+            results.add(requests.submit(() -> {
+                start.await();
+                try {
+                    assertTrue(encoder.matches("secreto", stored));
+                    return false;
+                } catch (PasswordHashingBusyEx e) {
+                    return true;
+                }
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                rejected++;
+            }
+        }
+        requests.shutdown();
+
+        assertEquals(1, maxRunning.get());
+        assertTrue(rejected >= logins - 3, "Solo caben el hash en curso y dos en cola: " + rejected);
+        PasswordHashingStatsDTO stats = encoder.getStats();
+        assertEquals(logins - rejected, stats.getMatches().getCompleted());
+        assertEquals(rejected, stats.getMatches().getRejected());
+        assertTrue(stats.getMatches().getMaxMillis() > 0);
+        // Los rechazados no se quedaron en la cola del pool
+        assertEquals(0, stats.getQueued());
+    }
+
+    @Test
+    public void testSlowHashesTimeOutWith503() {
+        BoundedPasswordEncoder encoder = track(new BoundedPasswordEncoder(bcrypt(14), 14, 1, 4, 10));
+
+        try {
+            encoder.encode("secreto");
+        } catch (PasswordHashingBusyEx e) {
+            assertEquals(1, encoder.getStats().getEncode().getRejected());
+            return;
+        }
+        throw new AssertionError("Se esperaba PasswordHashingBusyEx");
+    }
+
+    @Test
+    public void testHashesWithAnotherCostAreUpgraded() {
+        String weak = bcrypt(4).encode("secreto");
+        BoundedPasswordEncoder encoder = track(new BoundedPasswordEncoder(bcrypt(10), 10, 1, 4, 10_000));
+
+        assertTrue(encoder.matches("secreto", weak));
+        assertTrue(encoder.upgradeEncoding(weak));
+        String upgraded = encoder.encode("secreto");
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$10$"));
+        assertFalse(encoder.upgradeEncoding(upgraded));
+    }
+
+    private static PasswordEncoder bcrypt(int strength) {
+        return new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+    }
+
+    private BoundedPasswordEncoder track(BoundedPasswordEncoder encoder) {
+        encoders.add(encoder);
+        return encoder;
+    }
+}
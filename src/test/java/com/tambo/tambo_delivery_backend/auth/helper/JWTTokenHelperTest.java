@@ -0,0 +1,45 @@
+package com.tambo.tambo_delivery_backend.auth.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+
+import org.junit.jupiter.api.Test;
+
+import com.tambo.tambo_delivery_backend.auth.entities.Authority;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+
+public class JWTTokenHelperTest {
+
+    private static final String SECRET = "RXN0YUVzTWlDbGF2ZVNlY3JldGFTdXBlclNlZ3VyYUNvbk1hc0RlMzJDYXJhY3RlcmVzISE=";
+
+    private final JWTTokenHelper helper = new JWTTokenHelper("authapp", SECRET, 3600, 100);
+
+    @Test
+    public void testVerifiedClaimsAreReusedAndInvalidTokensRejected() {
+        String token = helper.generateToken(user());
+
+        Claims first = helper.parseToken(token);
+        assertEquals("ana@tambo.test", first.getSubject());
+        assertEquals(List.of("USER"), helper.getAuthorities(first).stream().map(Object::toString).toList());
+        assertSame(first, helper.parseToken(token));
+
+        // Firma de otra clave, token alterado o ausente: no valen y no entran en la caché
+        JWTTokenHelper other = new JWTTokenHelper("authapp",
+                "T3RyYUNsYXZlU2VjcmV0YVRhbWJpZW5EZU1hc0RlMzJDYXJhY3RlcmVzISEhIQ==", 3600, 100);
+        assertNull(helper.parseToken(other.generateToken(user())));
+        assertNull(helper.parseToken(token.substring(0, token.length() - 2) + "xx"));
+        assertNull(helper.parseToken(null));
+    }
+
+    private static User user() {
+        return User.builder()
+                .email("ana@tambo.test")
+                .authorities(List.of(Authority.builder().roleCode("USER").roleDescription("User").build()))
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+
+public class CustomUserDetailServiceTest {
+
+    private static final String EMAIL = "cliente@tambo.test";
+
+    private UserDetailRepository userDetailRepository;
+    private CustomUserDetailService service;
+
+    @BeforeEach
+    public void setUp() {
+        userDetailRepository = mock(UserDetailRepository.class);
+        service = new CustomUserDetailService(userDetailRepository, mock(ApplicationEventPublisher.class), 60, 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testUsersAreCachedUntilTheyChange() {
+        User first = User.builder().email(EMAIL).firstName("Ana").build();
+        User updated = User.builder().email(EMAIL).firstName("Ana María").build();
+        when(userDetailRepository.findByEmail(EMAIL)).thenReturn(first, updated);
+
+        assertSame(first, service.loadUserByUsername(EMAIL));
+        assertSame(first, service.loadUserByUsername(EMAIL));
+        verify(userDetailRepository, times(1)).findByEmail(EMAIL);
+
+        service.onUserChanged(new UserChangedEvent(EMAIL));
+        assertEquals("Ana María", ((User) service.loadUserByUsername(EMAIL)).getFirstName());
+
+        // El login siempre lee la base de datos
+        service.loadFreshUser(EMAIL);
+        verify(userDetailRepository, times(3)).findByEmail(EMAIL);
+    }
+
+    @Test
+    public void testSameInstanceWithinARequestEvenAfterInvalidation() {
+        User first = User.builder().email(EMAIL).firstName("Ana").build();
+        User updated = User.builder().email(EMAIL).firstName("Ana María").build();
+        when(userDetailRepository.findByEmail(EMAIL)).thenReturn(first, updated);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        User loaded = (User) service.loadUserByUsername(EMAIL);
+        service.onUserChanged(UserChangedEvent.allUsers());
+
+        assertSame(loaded, service.loadUserByUsername(EMAIL));
+        verify(userDetailRepository, times(1)).findByEmail(EMAIL);
+
+        // Una petición nueva ve el cambio
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertSame(updated, service.loadUserByUsername(EMAIL));
+    }
+
+    @Test
+    public void testUnknownUsersAreNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername(EMAIL));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername(EMAIL));
+        verify(userDetailRepository, times(2)).findByEmail(EMAIL);
+    }
+}
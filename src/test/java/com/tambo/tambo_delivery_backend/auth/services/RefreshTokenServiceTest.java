@@ -0,0 +1,125 @@
+package com.tambo.tambo_delivery_backend.auth.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.auth.entities.RevokedToken;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.helper.JWTTokenHelper;
+import com.tambo.tambo_delivery_backend.auth.repositories.RefreshTokenRepository;
+import com.tambo.tambo_delivery_backend.auth.repositories.RevokedTokenRepository;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:refresh;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "jwt.auth.app=authapp",
+        "jwt.auth.secret_key=RXN0YUVzTWlDbGF2ZVNlY3JldGFTdXBlclNlZ3VyYUNvbk1hc0RlMzJDYXJhY3RlcmVzISE=",
+        "jwt.auth.expires_in=900"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ RefreshTokenService.class, TokenRevocationService.class, JWTTokenHelper.class })
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JWTTokenHelper jwtTokenHelper;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserDetailRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder().email(UUID.randomUUID() + "@tambo.test").enabled(true).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        refreshTokenRepository.deleteAll();
+        revokedTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testRotationIssuesNewTokensAndReuseRevokesTheSession() {
+        RefreshTokenService.IssuedTokens login = refreshTokenService.issue(user);
+        assertEquals(user.getEmail(), jwtTokenHelper.getUserNameFromToken(login.accessToken()));
+
+        RefreshTokenService.IssuedTokens renewed = refreshTokenService.rotate(login.refreshToken()).orElseThrow();
+        assertNotEquals(login.refreshToken(), renewed.refreshToken());
+        assertEquals(user.getEmail(), jwtTokenHelper.getUserNameFromToken(renewed.accessToken()));
+
+        // El token ya usado vuelve a presentarse: se revoca toda la sesión, también el nuevo
+        assertTrue(refreshTokenService.rotate(login.refreshToken()).isEmpty());
+        assertTrue(refreshTokenService.rotate(renewed.refreshToken()).isEmpty());
+
+        // Otra sesión del mismo usuario sigue funcionando
+        RefreshTokenService.IssuedTokens other = refreshTokenService.issue(user);
+        assertTrue(refreshTokenService.rotate(other.refreshToken()).isPresent());
+    }
+
+    @Test
+    public void testInvalidAndRevokedUsersCannotRefresh() {
+        RefreshTokenService.IssuedTokens login = refreshTokenService.issue(user);
+        String forged = login.refreshToken().substring(0, login.refreshToken().indexOf('.') + 1) + "otro-secreto";
+        assertTrue(refreshTokenService.rotate(forged).isEmpty());
+        assertTrue(refreshTokenService.rotate("no-es-un-token").isEmpty());
+
+        // Cambio de contraseña o de roles: los refresh tokens emitidos antes dejan de valer
+        user.revokeTokens();
+        user = userRepository.save(user);
+        assertTrue(refreshTokenService.rotate(login.refreshToken()).isEmpty());
+
+        RefreshTokenService.IssuedTokens afterReset = refreshTokenService.issue(user);
+        user.setEnabled(false);
+        user = userRepository.save(user);
+        assertTrue(refreshTokenService.rotate(afterReset.refreshToken()).isEmpty());
+    }
+
+    @Test
+    public void testRevocationsFromOtherInstancesArriveWithTheNextRebuild() {
+        String jti = UUID.randomUUID().toString();
+        assertFalse(tokenRevocationService.isRevoked(jti));
+
+        // Revocado por otra instancia: solo está en la tabla
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti).expiresAt(Instant.now().plusSeconds(600)).build());
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti("expirado").expiresAt(Instant.now().minusSeconds(1)).build());
+        tokenRevocationService.rebuild();
+
+        assertTrue(tokenRevocationService.isRevoked(jti));
+        assertFalse(revokedTokenRepository.existsById("expirado"));
+    }
+}
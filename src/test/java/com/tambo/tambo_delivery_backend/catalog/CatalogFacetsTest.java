@@ -0,0 +1,79 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.tambo.tambo_delivery_backend.dto.response.BrandDTO;
+import com.tambo.tambo_delivery_backend.dto.response.CategoryDTO;
+import com.tambo.tambo_delivery_backend.dto.response.FacetCountDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductFacetsDTO;
+
+public class CatalogFacetsTest {
+
+    private final CategoryDTO bebidas = CategoryDTO.builder().id(UUID.randomUUID()).name("Bebidas").build();
+    private final CategoryDTO snacks = CategoryDTO.builder().id(UUID.randomUUID()).name("Snacks").build();
+    private final BrandDTO tambo = BrandDTO.builder().id(UUID.randomUUID()).name("Tambo").build();
+    private final BrandDTO otra = BrandDTO.builder().id(UUID.randomUUID()).name("Otra").build();
+
+    private final CatalogFacets facets = new CatalogFacets(List.of(
+            product(bebidas, tambo, "5", true, "10"),
+            product(bebidas, tambo, "15", false, null),
+            product(bebidas, otra, "120", false, null),
+            product(snacks, tambo, "8", true, null)));
+
+    @Test
+    public void testCountsWithoutFilters() {
+        ProductFacetsDTO result = facets.count(CatalogQuery.builder().build(), null);
+
+        assertEquals(4, result.getTotal());
+        assertEquals(List.of(count(bebidas.getId(), 3), count(snacks.getId(), 1)),
+                keysAndCounts(result.getCategories()));
+        assertEquals(List.of("0-10", "10-20", "100-"),
+                result.getPriceRanges().stream().map(FacetCountDTO::getKey).toList());
+        assertEquals(2, result.getNewArrival());
+        assertEquals(1, result.getOnDiscount());
+    }
+
+    @Test
+    public void testEachFacetIgnoresItsOwnFilter() {
+        ProductFacetsDTO result = facets.count(CatalogQuery.builder()
+                .categoryId(bebidas.getId())
+                .brandId(tambo.getId())
+                .build(), null);
+
+        assertEquals(2, result.getTotal());
+        // Categorías contadas solo con el filtro de marca, marcas solo con el de categoría
+        assertEquals(List.of(count(bebidas.getId(), 2), count(snacks.getId(), 1)),
+                keysAndCounts(result.getCategories()));
+        assertEquals(List.of(count(tambo.getId(), 2), count(otra.getId(), 1)),
+                keysAndCounts(result.getBrands()));
+        assertEquals(1, result.getNewArrival());
+    }
+
+    private static List<String> keysAndCounts(List<FacetCountDTO> counts) {
+        return counts.stream().map(c -> c.getKey() + "=" + c.getCount()).toList();
+    }
+
+    private static String count(UUID id, long count) {
+        return id + "=" + count;
+    }
+
+    private static ProductDTO product(CategoryDTO category, BrandDTO brand, String price, boolean newArrival,
+            String discount) {
+        return ProductDTO.builder()
+                .id(UUID.randomUUID())
+                .name("Producto")
+                .price(new BigDecimal(price))
+                .category(category)
+                .brand(brand)
+                .isNewArrival(newArrival)
+                .discountPercentage(discount != null ? new BigDecimal(discount) : null)
+                .build();
+    }
+}
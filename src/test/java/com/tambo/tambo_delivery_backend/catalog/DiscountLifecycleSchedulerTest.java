@@ -0,0 +1,146 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.repositories.DiscountRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderItemRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+
+public class DiscountLifecycleSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(-5);
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    // Reloj que la prueba adelanta a mano
+    private static final class TestClock extends Clock {
+        private Instant now = TODAY.atTime(12, 0).atZone(ZONE).toInstant();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+    private final List<DiscountChangedEvent> published = new ArrayList<>();
+
+    private DiscountRepository discountRepository;
+    private DiscountPricingIndex discountPricing;
+    private DiscountLifecycleScheduler scheduler;
+    private Discount discount;
+
+    @BeforeEach
+    public void setUp() {
+        discountRepository = mock(DiscountRepository.class);
+        discountPricing = mock(DiscountPricingIndex.class);
+        when(discountPricing.refreshDiscount(any())).thenReturn(Set.of());
+        ProductCatalog catalog = new ProductCatalog(mock(ProductRepository.class), mock(OrderItemRepository.class),
+                discountPricing, mock(PlatformTransactionManager.class));
+
+        // Los límites llegan al catálogo igual que en la aplicación: como DiscountChangedEvent
+        scheduler = new DiscountLifecycleScheduler(discountRepository, event -> {
+            published.add((DiscountChangedEvent) event);
+            catalog.onDiscountChanged((DiscountChangedEvent) event);
+        }, clock);
+
+        // Empieza mañana y termina pasado mañana (deja de aplicar el día siguiente)
+        discount = Discount.builder()
+                .id(UUID.randomUUID())
+                .name("Verano")
+                .percentage(BigDecimal.TEN)
+                .startDate(TODAY.plusDays(1))
+                .endDate(TODAY.plusDays(2))
+                .isActive(true)
+                .build();
+        when(discountRepository.findById(discount.getId())).thenAnswer(inv -> Optional.of(discount));
+        scheduler.onDiscountChanged(new DiscountChangedEvent(discount.getId()));
+    }
+
+    @Test
+    public void testCrossingStartAndEndRecomputesPrices() {
+        assertEquals(2, scheduler.pendingBoundaries());
+
+        clock.advance(Duration.ofHours(11).plusMinutes(59));
+        scheduler.publishDue();
+        assertEquals(List.of(), published);
+
+        // 00:00 de startDate
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.publishDue();
+        assertEquals(List.of(new DiscountChangedEvent(discount.getId())), published);
+        verify(discountPricing, times(1)).refreshDiscount(discount.getId());
+
+        // 00:00 del día siguiente a endDate
+        clock.advance(Duration.ofDays(2));
+        scheduler.publishDue();
+        assertEquals(2, published.size());
+        verify(discountPricing, times(2)).refreshDiscount(discount.getId());
+        assertEquals(0, scheduler.pendingBoundaries());
+    }
+
+    @Test
+    public void testEditDropsTheStaleBoundaries() {
+        // El administrador retrasa el inicio una semana
+        discount.setStartDate(TODAY.plusDays(7));
+        discount.setEndDate(TODAY.plusDays(8));
+        scheduler.onDiscountChanged(new DiscountChangedEvent(discount.getId()));
+        assertEquals(2, scheduler.pendingBoundaries());
+
+        // Pasan las fechas antiguas: no se recalcula nada
+        clock.advance(Duration.ofDays(3));
+        scheduler.publishDue();
+        assertEquals(List.of(), published);
+
+        clock.advance(Duration.ofDays(4));
+        scheduler.publishDue();
+        assertEquals(List.of(new DiscountChangedEvent(discount.getId())), published);
+    }
+
+    @Test
+    public void testDeletedDiscountIsUnscheduled() {
+        when(discountRepository.findById(discount.getId())).thenReturn(Optional.empty());
+        scheduler.onDiscountChanged(new DiscountChangedEvent(discount.getId()));
+
+        clock.advance(Duration.ofDays(5));
+        scheduler.publishDue();
+        assertEquals(List.of(), published);
+        assertEquals(0, scheduler.pendingBoundaries());
+    }
+}
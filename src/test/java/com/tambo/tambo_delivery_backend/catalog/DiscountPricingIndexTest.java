@@ -0,0 +1,112 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.entities.Product;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tambo;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DiscountPricingIndex.class)
+public class DiscountPricingIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DiscountPricingIndex index;
+
+    private Product agua;
+    private Product gaseosa;
+    private Discount verano;
+
+    @BeforeEach
+    public void setUp() {
+        Brand brand = entityManager.persist(Brand.builder().name("Tambo").build());
+        Category category = entityManager.persist(Category.builder().name("Bebidas").build());
+        agua = entityManager.persist(product("agua", brand, category));
+        gaseosa = entityManager.persist(product("gaseosa", brand, category));
+
+        // Dos descuentos sobre el agua: gana el mayor; el de verano termina hoy
+        verano = entityManager.persist(discount("Verano", "20", TODAY.minusDays(3), TODAY, agua));
+        entityManager.persist(discount("Agua", "10", TODAY.minusDays(3), TODAY.plusDays(5), agua));
+        entityManager.persist(discount("Futuro", "50", TODAY.plusDays(1), TODAY.plusDays(5), gaseosa));
+        entityManager.flush();
+        entityManager.clear();
+
+        index.reload();
+    }
+
+    @Test
+    public void testKeepsBestActiveDiscountPerProduct() {
+        assertEquals(0, new BigDecimal("20").compareTo(index.percentageOf(agua.getId())));
+        assertEquals(BigDecimal.ZERO, index.percentageOf(gaseosa.getId()));
+    }
+
+    @Test
+    public void testRolloverReturnsOnlyProductsWhosePriceChanged() {
+        assertEquals(Set.of(agua.getId(), gaseosa.getId()), index.rollover(TODAY.plusDays(1)));
+        assertEquals(0, BigDecimal.TEN.compareTo(index.percentageOf(agua.getId())));
+        assertEquals(0, new BigDecimal("50").compareTo(index.percentageOf(gaseosa.getId())));
+
+        assertEquals(Set.of(), index.rollover(TODAY.plusDays(2)));
+    }
+
+    @Test
+    public void testRefreshDiscountAfterDelete() {
+        Discount deleted = entityManager.find(Discount.class, verano.getId());
+        deleted.getProducts().clear();
+        entityManager.remove(deleted);
+        entityManager.flush();
+
+        assertEquals(Set.of(agua.getId()), index.refreshDiscount(verano.getId()));
+        assertEquals(0, BigDecimal.TEN.compareTo(index.percentageOf(agua.getId())));
+    }
+
+    private static Product product(String slug, Brand brand, Category category) {
+        return Product.builder()
+                .slug(slug)
+                .name(slug)
+                .description(slug)
+                .price(BigDecimal.TEN)
+                .stock(10)
+                .brand(brand)
+                .category(category)
+                .build();
+    }
+
+    private static Discount discount(String name, String percentage, LocalDate start, LocalDate end,
+            Product product) {
+        return Discount.builder()
+                .name(name)
+                .percentage(new BigDecimal(percentage))
+                .startDate(start)
+                .endDate(end)
+                .isActive(true)
+                .products(new ArrayList<>(List.of(product)))
+                .build();
+    }
+}
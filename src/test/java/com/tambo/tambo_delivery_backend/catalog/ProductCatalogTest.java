@@ -0,0 +1,232 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSuggestionDTO;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.repositories.DiscountRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderItemRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+
+public class ProductCatalogTest {
+
+    private final Brand brand = Brand.builder().id(UUID.randomUUID()).name("Tambo").build();
+    private final Category category = Category.builder().id(UUID.randomUUID()).name("Bebidas").build();
+
+    // Contenido de la "BD": lo que devuelven los repositorios simulados
+    private final Map<UUID, Product> table = new ConcurrentHashMap<>();
+
+    private ProductRepository productRepository;
+    private OrderItemRepository orderItemRepository;
+    private ProductCatalog catalog;
+    private Product agua;
+    private Product gaseosa;
+
+    @BeforeEach
+    public void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllByIsActiveTrue()).thenAnswer(inv -> table.values().stream()
+                .filter(Product::isActive)
+                .toList());
+        when(productRepository.findAllByIdIn(any())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            return ids.stream().map(table::get).filter(p -> p != null).toList();
+        });
+        orderItemRepository = mock(OrderItemRepository.class);
+        catalog = new ProductCatalog(productRepository, orderItemRepository,
+                new DiscountPricingIndex(mock(DiscountRepository.class)), mock(PlatformTransactionManager.class));
+
+        agua = save(product("agua", "Agua San Mateo", "2.50"));
+        gaseosa = save(product("gaseosa", "Gaseosa Inca Kola", "4.00"));
+    }
+
+    @Test
+    public void testFirstReadLoadsTheSnapshotWhenStartupFailed() {
+        when(productRepository.findAllByIsActiveTrue())
+                .thenThrow(new IllegalStateException("BD no disponible"))
+                .thenAnswer(inv -> List.copyOf(table.values()));
+
+        // Al iniciar falla la carga: se registra y la foto queda sin construir
+        catalog.onApplicationReady();
+
+        assertEquals(2, catalog.current().size());
+        assertTrue(catalog.findBySlug("agua").isPresent());
+        // La foto ya está lista: las lecturas siguientes no vuelven a la BD
+        catalog.query(CatalogQuery.builder().build());
+        verify(productRepository, times(2)).findAllByIsActiveTrue();
+    }
+
+    @Test
+    public void testAdminEditPatchesOnlyTheChangedProduct() {
+        CatalogSnapshot before = catalog.reload();
+        ProductDTO untouched = before.findBySlug("gaseosa").orElseThrow();
+
+        agua.setName("Agua San Luis");
+        agua.setPrice(new BigDecimal("3.00"));
+        catalog.onCatalogChanged(ProductCatalogChangedEvent.of(agua.getId()));
+
+        CatalogSnapshot after = catalog.current();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(0, new BigDecimal("3.00").compareTo(after.findBySlug("agua").orElseThrow().getPrice()));
+        assertEquals(List.of("Agua San Luis"), names(catalog.query(CatalogQuery.builder().name("san luis").build())));
+        assertSame(untouched, after.findBySlug("gaseosa").orElseThrow());
+        // La foto anterior no cambia: quien la estaba leyendo sigue viendo datos coherentes
+        assertEquals(0, new BigDecimal("2.50").compareTo(before.findBySlug("agua").orElseThrow().getPrice()));
+        verify(productRepository, times(1)).findAllByIsActiveTrue();
+    }
+
+    @Test
+    public void testDeactivatedOrDeletedProductsLeaveTheSnapshot() {
+        catalog.reload();
+
+        agua.setActive(false);
+        catalog.onCatalogChanged(ProductCatalogChangedEvent.of(agua.getId()));
+        assertFalse(catalog.findBySlug("agua").isPresent());
+
+        table.remove(gaseosa.getId());
+        catalog.onCatalogChanged(ProductCatalogChangedEvent.of(gaseosa.getId()));
+        assertEquals(0, catalog.current().size());
+        assertTrue(catalog.query(CatalogQuery.builder().name("gaseosa").build()).isEmpty());
+    }
+
+    @Test
+    public void testPatchRefreshesSuggestionsAndPopularity() {
+        Product coca = save(product("coca-cola", "Gaseosa Coca-Cola", "4.00"));
+        when(orderItemRepository.sumQuantityByProduct()).thenReturn(List.<Object[]>of(new Object[] { coca.getId(), 5L }));
+        catalog.reload();
+        assertEquals(List.of("coca-cola", "gaseosa"), slugs(catalog.suggest("gaseosa", 5)));
+
+        // Una venta de Inca Kola publica el patch del producto: su popularidad se vuelve a leer
+        when(orderItemRepository.sumQuantityByProductIdIn(any()))
+                .thenReturn(List.<Object[]>of(new Object[] { gaseosa.getId(), 8L }));
+        catalog.onCatalogChanged(ProductCatalogChangedEvent.of(gaseosa.getId()));
+        assertEquals(List.of("gaseosa", "coca-cola"), slugs(catalog.suggest("gaseosa", 5)));
+
+        gaseosa.setName("Gaseosa Guaraná");
+        catalog.onCatalogChanged(ProductCatalogChangedEvent.of(gaseosa.getId()));
+        assertEquals(List.of("gaseosa"), slugs(catalog.suggest("guarana", 5)));
+        assertTrue(catalog.suggest("inca", 5).isEmpty());
+    }
+
+    @Test
+    public void testStopwordOnlyQueryFallsBackToNameSubstring() {
+        // "la" no llega al índice (palabra vacía): se busca como subcadena del nombre
+        CatalogQuery query = CatalogQuery.builder().name("la").build();
+
+        assertEquals(List.of("Gaseosa Inca Kola"), names(catalog.query(query)));
+        assertEquals(1, catalog.facets(query).getTotal());
+    }
+
+    @Test
+    public void testReadersNeverSeeAHalfBuiltSnapshot() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            save(product("producto-" + i, "Producto " + i, "1.00"));
+        }
+        catalog.reload();
+
+        int readers = 4;
+        int edits = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<String> failures = new CopyOnWriteArrayList<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                long lastVersion = 0;
+                for (int i = 0; i < 2_000; i++) {
+                    CatalogSnapshot snapshot = catalog.current();
+                    if (snapshot.getVersion() < lastVersion) {
+                        failures.add("Versión hacia atrás: " + snapshot.getVersion() + " < " + lastVersion);
+                    }
+                    lastVersion = snapshot.getVersion();
+                    // Índices y lista de la misma foto deben coincidir
+                    ProductDTO bySlug = snapshot.findBySlug("agua").orElse(null);
+                    if (snapshot.size() != 52 || bySlug == null || !snapshot.getProducts().contains(bySlug)) {
+                        failures.add("Foto incoherente en la versión " + snapshot.getVersion());
+                    }
+                }
+                return null;
+            }));
+        }
+        tasks.add(pool.submit(() -> {
+            start.await();
+            for (int i = 1; i <= edits; i++) {
+                agua.setPrice(BigDecimal.valueOf(i));
+                if (i % 50 == 0) {
+                    catalog.onCatalogChanged(ProductCatalogChangedEvent.all());
+                } else {
+                    catalog.onCatalogChanged(ProductCatalogChangedEvent.of(agua.getId()));
+                }
+            }
+            return null;
+        }));
+        start.countDown();
+
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(List.of(), failures);
+        assertEquals(0, BigDecimal.valueOf(edits).compareTo(catalog.findBySlug("agua").orElseThrow().getPrice()));
+    }
+
+    private Product save(Product product) {
+        table.put(product.getId(), product);
+        return product;
+    }
+
+    private Product product(String slug, String name, String price) {
+        return Product.builder()
+                .id(UUID.randomUUID())
+                .slug(slug)
+                .name(name)
+                .description(name)
+                .price(new BigDecimal(price))
+                .stock(10)
+                .brand(brand)
+                .category(category)
+                .resources(List.of())
+                .discounts(List.of())
+                .createdAt(new java.util.Date())
+                .build();
+    }
+
+    private static List<String> slugs(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getSlug).toList();
+    }
+
+    private static List<String> names(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getName).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tambo.tambo_delivery_backend.dto.response.BrandDTO;
+import com.tambo.tambo_delivery_backend.dto.response.CategoryDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+
+public class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    private ProductDTO azucar;
+    private ProductDTO gaseosa;
+    private ProductDTO galletas;
+
+    @BeforeEach
+    public void setUp() {
+        azucar = product("Azúcar rubia", "Bolsa de 1kg", "Dulcería", "Abarrotes");
+        gaseosa = product("Gaseosa Inca Kola", "Botella de 500ml", "Inca Kola", "Bebidas");
+        galletas = product("Galletas de vainilla", "Paquete con azúcar", "Field", "Snacks");
+        index.rebuild(List.of(azucar, gaseosa, galletas));
+    }
+
+    @Test
+    public void testIgnoresAccentsAndRanksNameAboveDescription() {
+        assertEquals(List.of(azucar, galletas), index.search("AZUCAR"));
+    }
+
+    @Test
+    public void testMatchesPrefixesAndTypos() {
+        assertEquals(List.of(gaseosa), index.search("gase"));
+        assertEquals(List.of(gaseosa), index.search("gaseoza"));
+        assertEquals(List.of(galletas), index.search("galetas vainilla"));
+    }
+
+    @Test
+    public void testRequiresEveryWord() {
+        assertTrue(index.search("azucar bebidas").isEmpty());
+        assertTrue(index.search("de").isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        ProductDTO renamed = product("Agua San Mateo", "Botella de 600ml", "San Mateo", "Bebidas");
+        renamed.setId(gaseosa.getId());
+        index.update(Set.of(gaseosa.getId(), azucar.getId()), List.of(renamed));
+
+        assertTrue(index.search("gaseosa").isEmpty());
+        assertEquals(List.of(galletas), index.search("azucar"));
+        assertEquals(List.of(renamed), index.search("agua"));
+        assertEquals(2, index.size());
+    }
+
+    private static ProductDTO product(String name, String description, String brand, String category) {
+        return ProductDTO.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .description(description)
+                .price(BigDecimal.ONE)
+                .brand(BrandDTO.builder().id(UUID.randomUUID()).name(brand).build())
+                .category(CategoryDTO.builder().id(UUID.randomUUID()).name(category).build())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.tambo.tambo_delivery_backend.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.dto.response.ProductSuggestionDTO;
+
+public class SuggestionTrieTest {
+
+    @Test
+    public void testSuggestsByPrefixOfAnyWordMostPopularFirst() {
+        ProductDTO inca = product("Gaseosa Inca Kola", "inca-kola");
+        ProductDTO coca = product("Gaseosa Coca-Cola", "coca-cola");
+        ProductDTO galletas = product("Galletas Soda", "galletas-soda");
+        SuggestionTrie trie = SuggestionTrie.of(List.of(inca, coca, galletas),
+                Map.of(coca.getId(), 50L, inca.getId(), 10L));
+
+        assertEquals(List.of("coca-cola", "inca-kola"), slugs(trie.suggest("GAS", 5)));
+        assertEquals(List.of("coca-cola", "inca-kola", "galletas-soda"), slugs(trie.suggest("ga", 5)));
+        assertEquals(List.of("inca-kola"), slugs(trie.suggest("kola", 5)));
+        assertEquals(List.of("coca-cola"), slugs(trie.suggest("coca c", 5)));
+        assertEquals(List.of("coca-cola"), slugs(trie.suggest("gas", 1)));
+        assertTrue(trie.suggest("agua", 5).isEmpty());
+    }
+
+    @Test
+    public void testKeepsOnlyTopKPerPrefix() {
+        List<ProductDTO> products = IntStream.range(0, 30)
+                .mapToObj(i -> product("Agua " + i, "agua-" + i))
+                .toList();
+        SuggestionTrie trie = SuggestionTrie.of(products, Map.of(products.get(29).getId(), 1L));
+
+        List<ProductSuggestionDTO> suggestions = trie.suggest("agua", 100);
+        assertEquals(SuggestionTrie.TOP_K, suggestions.size());
+        assertEquals("agua-29", suggestions.get(0).getSlug());
+    }
+
+    @Test
+    public void testPatchMatchesAFullRebuild() {
+        Random random = new Random(42);
+        String[] words = { "agua", "gaseosa", "inca", "kola", "galletas", "soda", "azucar", "rubia", "gas", "a" };
+        Map<UUID, ProductDTO> products = new HashMap<>();
+        Map<UUID, Long> popularity = new HashMap<>();
+        SuggestionTrie trie = SuggestionTrie.of(List.of(), popularity);
+
+        for (int step = 0; step < 300; step++) {
+            // Alta, edición (nombre y ventas) o baja de un producto, como los eventos del catálogo
+            List<ProductDTO> previous = new ArrayList<>();
+            List<ProductDTO> added = new ArrayList<>();
+            UUID id = products.isEmpty() || random.nextInt(3) == 0
+                    ? UUID.randomUUID()
+                    : new ArrayList<>(products.keySet()).get(random.nextInt(products.size()));
+            if (products.containsKey(id)) {
+                previous.add(products.remove(id));
+            }
+            if (random.nextInt(4) > 0) {
+                String name = IntStream.range(0, 1 + random.nextInt(3))
+                        .mapToObj(i -> words[random.nextInt(words.length)])
+                        .collect(Collectors.joining(" "));
+                ProductDTO product = product(name, "p-" + step);
+                product.setId(id);
+                products.put(id, product);
+                popularity.put(id, (long) random.nextInt(5));
+                added.add(product);
+            }
+            trie = trie.patch(previous, added, popularity);
+
+            SuggestionTrie rebuilt = SuggestionTrie.of(products.values(), popularity);
+            for (String prefix : List.of("a", "ag", "agua", "g", "ga", "gas", "gaseosa i", "k", "kola", "s", "z")) {
+                assertEquals(slugs(rebuilt.suggest(prefix, 20)), slugs(trie.suggest(prefix, 20)),
+                        "Paso " + step + ", prefijo " + prefix);
+            }
+        }
+    }
+
+    @Test
+    public void testPatchUpdatesNamesAndPopularity() {
+        ProductDTO inca = product("Gaseosa Inca Kola", "inca-kola");
+        ProductDTO coca = product("Gaseosa Coca-Cola", "coca-cola");
+        SuggestionTrie trie = SuggestionTrie.of(List.of(inca, coca), Map.of(coca.getId(), 1L));
+
+        // Se edita y se vende la Inca Kola: solo se parchea ese producto y pasa delante
+        ProductDTO renamed = product("Gaseosa Inca Kola Zero", "inca-kola-zero");
+        renamed.setId(inca.getId());
+        SuggestionTrie patched = trie.patch(List.of(inca), List.of(renamed),
+                Map.of(inca.getId(), 3L, coca.getId(), 1L));
+
+        assertEquals(List.of("inca-kola-zero", "coca-cola"), slugs(patched.suggest("gaseosa", 5)));
+        assertEquals(List.of("inca-kola-zero"), slugs(patched.suggest("zero", 5)));
+        // El trie anterior no cambia
+        assertEquals(List.of("coca-cola", "inca-kola"), slugs(trie.suggest("gaseosa", 5)));
+        assertTrue(patched.patch(List.of(renamed, coca), List.of(), Map.of()).suggest("g", 5).isEmpty());
+    }
+
+    private static List<String> slugs(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getSlug).toList();
+    }
+
+    private static ProductDTO product(String name, String slug) {
+        return ProductDTO.builder().id(UUID.randomUUID()).name(name).slug(slug).build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.tambo.tambo_delivery_backend.home;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.tambo.tambo_delivery_backend.catalog.CatalogSnapshot;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalog;
+import com.tambo.tambo_delivery_backend.catalog.ProductCatalogChangedEvent;
+import com.tambo.tambo_delivery_backend.controllers.PublicController;
+import com.tambo.tambo_delivery_backend.dto.response.HomeDTO;
+import com.tambo.tambo_delivery_backend.services.AppConfigService;
+
+public class HomeServiceTest {
+
+    private AppConfigService configService;
+    private ProductCatalog productCatalog;
+    private HomeService homeService;
+
+    @BeforeEach
+    public void setUp() {
+        configService = mock(AppConfigService.class);
+        productCatalog = mock(ProductCatalog.class);
+        when(productCatalog.current()).thenReturn(CatalogSnapshot.of(1, List.of()));
+        homeService = new HomeService(configService, productCatalog);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        homeService.shutdown();
+    }
+
+    @Test
+    public void testLoadsRunInParallel() {
+        // Cada carga espera a que las otras dos hayan empezado: en serie no terminaría nunca
+        CountDownLatch started = new CountDownLatch(3);
+        when(configService.getSliderImages()).thenAnswer(inv -> awaitOthers(started));
+        when(configService.getCategoryButtons()).thenAnswer(inv -> awaitOthers(started));
+        when(configService.getProductSectionsWithProducts()).thenAnswer(inv -> awaitOthers(started));
+
+        HomeDTO home = homeService.getHome();
+
+        assertEquals(List.of(), home.getSliders());
+        assertEquals(List.of(), home.getCategoryButtons());
+        assertEquals(List.of(), home.getSections());
+    }
+
+    @Test
+    public void testHomeIsReusedUntilCatalogOrConfigChanges() {
+        HomeDTO first = homeService.getHome();
+        assertSame(first, homeService.getHome());
+        verify(configService, times(1)).getProductSectionsWithProducts();
+
+        homeService.onConfigChanged(new HomeConfigChangedEvent());
+        HomeDTO afterConfig = homeService.getHome();
+        assertNotEquals(first.getVersion(), afterConfig.getVersion());
+
+        // Una nueva foto del catálogo también cambia la versión
+        when(productCatalog.current()).thenReturn(CatalogSnapshot.of(2, List.of()));
+        HomeDTO afterCatalog = homeService.getHome();
+        assertNotEquals(afterConfig.getVersion(), afterCatalog.getVersion());
+
+        homeService.onCatalogChanged(ProductCatalogChangedEvent.all());
+        assertNotEquals(afterCatalog.getVersion(), homeService.getHome().getVersion());
+        verify(configService, times(4)).getProductSectionsWithProducts();
+    }
+
+    @Test
+    public void testEndpointAnswersNotModifiedForMatchingETags() {
+        PublicController controller = new PublicController();
+        ReflectionTestUtils.setField(controller, "homeService", homeService);
+        String etag = "\"" + homeService.getHome().getVersion() + "\"";
+
+        for (String ifNoneMatch : List.of(etag, "W/" + etag, "\"otra\", " + etag)) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ResponseEntity<?> result = controller.getHome(request(ifNoneMatch, response));
+            assertNull(result, ifNoneMatch);
+            assertEquals(304, response.getStatus(), ifNoneMatch);
+            assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        }
+
+        ResponseEntity<?> stale = controller.getHome(request("W/\"otra\"", new MockHttpServletResponse()));
+        assertEquals(200, stale.getStatusCode().value());
+        assertEquals(etag, stale.getHeaders().getETag());
+        assertTrue(stale.getBody() instanceof HomeDTO);
+    }
+
+    private static List<?> awaitOthers(CountDownLatch started) throws InterruptedException {
+        started.countDown();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Las cargas del home no se ejecutaron en paralelo");
+        }
+        return List.of();
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/public/home");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, response);
+    }
+}
@@ -0,0 +1,222 @@
+package com.tambo.tambo_delivery_backend.orders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderEvent;
+import com.tambo.tambo_delivery_backend.entities.OrderEventStatus;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.repositories.OrderEventRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderEventSequenceRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProcessedOrderEventRepository;
+
+// Los lotes se despachan a mano: el hilo de sondeo está desactivado
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order_events;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "orders.events.poller-enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ OrderEventLog.class, OrderEventDispatcher.class, OrderEventDispatcherTest.SubscriberConfig.class })
+public class OrderEventDispatcherTest {
+
+    static class RecordingSubscriber implements OrderEventSubscriber {
+
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String subscriberName() {
+            return "test";
+        }
+
+        @Override
+        public void onOrderEvent(OrderEventMessage event) {
+            if (failOnce.remove(event.idempotencyKey())) {
+                throw new IllegalStateException("fallo simulado");
+            }
+            received.add(event.idempotencyKey());
+        }
+    }
+
+    @TestConfiguration
+    static class SubscriberConfig {
+
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    @Autowired
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private OrderEventDispatcher dispatcher;
+
+    @Autowired
+    private RecordingSubscriber subscriber;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private ProcessedOrderEventRepository processedRepository;
+
+    @Autowired
+    private OrderEventSequenceRepository sequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    public void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        subscriber.received.clear();
+        subscriber.failOnce.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orderEventRepository.deleteAll();
+        processedRepository.deleteAll();
+        sequenceRepository.deleteAll();
+    }
+
+    @Test
+    public void testEventsAreDeliveredInOrderAndOnlyOnce() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        append(a, null, OrderStatus.PENDING);
+        append(b, null, OrderStatus.PENDING);
+        append(a, OrderStatus.PENDING, OrderStatus.PAID);
+        append(a, OrderStatus.PAID, OrderStatus.SHIPPED);
+
+        assertEquals(4, dispatcher.dispatchBatch());
+        assertEquals(List.of(a + ":1", b + ":1", a + ":2", a + ":3"), subscriber.received);
+        assertEquals(4, orderEventRepository.countByStatus(OrderEventStatus.PUBLISHED));
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        // Redelivery (p. ej. la instancia cayó antes de marcarlo publicado): no se aplica dos veces
+        OrderEvent paid = findByKey(a + ":2");
+        paid.setStatus(OrderEventStatus.PENDING);
+        paid.setLeaseUntil(null);
+        orderEventRepository.save(paid);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(4, subscriber.received.size());
+        assertEquals(OrderEventStatus.PUBLISHED, findByKey(a + ":2").getStatus());
+    }
+
+    @Test
+    public void testFailedEventBlocksLaterEventsOfTheSameOrder() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        append(a, null, OrderStatus.PENDING);
+        append(a, OrderStatus.PENDING, OrderStatus.PAID);
+        append(b, null, OrderStatus.PENDING);
+        subscriber.failOnce.add(a + ":1");
+
+        assertEquals(3, dispatcher.dispatchBatch());
+        assertEquals(List.of(b + ":1"), subscriber.received);
+
+        OrderEvent failed = findByKey(a + ":1");
+        assertEquals(OrderEventStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getLeaseUntil().isAfter(Instant.now()));
+
+        // Hasta que vence la espera no se reintenta nada de la orden
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        orderEventRepository.findAll().forEach(event -> {
+            if (event.getStatus() == OrderEventStatus.PENDING) {
+                event.setLeaseUntil(Instant.now().minusSeconds(1));
+                orderEventRepository.save(event);
+            }
+        });
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(List.of(b + ":1", a + ":1", a + ":2"), subscriber.received);
+        assertEquals(2, findByKey(a + ":1").getAttempts());
+    }
+
+    @Test
+    public void testFailedEventBlocksEventsAppendedAfterItsBatch() {
+        UUID a = UUID.randomUUID();
+        append(a, null, OrderStatus.PENDING);
+        subscriber.failOnce.add(a + ":1");
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        // El siguiente evento llega con el primero esperando reintento: no se adelanta
+        append(a, OrderStatus.PENDING, OrderStatus.PAID);
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(List.of(), subscriber.received);
+
+        // Descartado tras agotar los intentos: la orden queda bloqueada
+        OrderEvent failed = findByKey(a + ":1");
+        failed.setStatus(OrderEventStatus.FAILED);
+        orderEventRepository.save(failed);
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        failed.setStatus(OrderEventStatus.PENDING);
+        failed.setLeaseUntil(null);
+        orderEventRepository.save(failed);
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(List.of(a + ":1", a + ":2"), subscriber.received);
+    }
+
+    @Test
+    public void testSequenceIsNotReusedAfterPurge() {
+        UUID a = UUID.randomUUID();
+        append(a, null, OrderStatus.PENDING);
+        append(a, OrderStatus.PENDING, OrderStatus.PAID);
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        transaction.executeWithoutResult(status -> orderEventRepository
+                .deletePublishedBefore(OrderEventStatus.PUBLISHED, Instant.now().plusSeconds(60)));
+        append(a, OrderStatus.PAID, OrderStatus.SHIPPED);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(a + ":1", a + ":2", a + ":3"), subscriber.received);
+    }
+
+    private void append(UUID orderId, OrderStatus from, OrderStatus to) {
+        Order order = Order.builder().id(orderId).orderStatus(to).build();
+        transaction.executeWithoutResult(status -> orderEventLog.append(order, from));
+    }
+
+    private OrderEvent findByKey(String key) {
+        return orderEventRepository.findAll().stream()
+                .filter(event -> event.getIdempotencyKey().equals(key))
+                .findFirst()
+                .orElseThrow();
+    }
+}
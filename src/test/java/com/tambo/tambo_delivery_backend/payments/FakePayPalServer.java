@@ -0,0 +1,156 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// API de PayPal mínima en memoria para las pruebas: token OAuth, consulta y captura de órdenes.
+// Permite simular latencia y caídas (503) y cuenta las llamadas y conexiones TCP recibidas.
+class FakePayPalServer implements AutoCloseable {
+
+    private static final String ORDERS_PATH = "/v2/checkout/orders/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, String> orders = new ConcurrentHashMap<>();
+    private final Map<String, String> amounts = new ConcurrentHashMap<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger captures = new AtomicInteger();
+    private final AtomicInteger gets = new AtomicInteger();
+    private volatile long latencyMs;
+    private volatile boolean down;
+
+    FakePayPalServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/oauth2/token", this::token);
+        server.createContext(ORDERS_PATH, this::orders);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Estado de PayPal de la orden: CREATED, APPROVED, COMPLETED, VOIDED... por 20.00 USD
+    void putOrder(String paypalOrderId, String status) {
+        putOrder(paypalOrderId, status, "20.00");
+    }
+
+    void putOrder(String paypalOrderId, String status, String amount) {
+        orders.put(paypalOrderId, status);
+        amounts.put(paypalOrderId, amount);
+    }
+
+    String orderStatus(String paypalOrderId) {
+        return orders.get(paypalOrderId);
+    }
+
+    // Retardo aplicado a las llamadas de órdenes (no al token)
+    void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    // Con true las llamadas de órdenes responden 503
+    void setDown(boolean down) {
+        this.down = down;
+    }
+
+    int captures() {
+        return captures.get();
+    }
+
+    int gets() {
+        return gets.get();
+    }
+
+    // Conexiones TCP distintas que han llegado (keep-alive las reutiliza)
+    int connections() {
+        return clientPorts.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        accept(exchange);
+        respond(exchange, 200, "{\"access_token\":\"fake-token\",\"token_type\":\"Bearer\",\"expires_in\":32400}");
+    }
+
+    private void orders(HttpExchange exchange) throws IOException {
+        accept(exchange);
+        String path = exchange.getRequestURI().getPath().substring(ORDERS_PATH.length());
+        boolean capture = path.endsWith("/capture");
+        String id = capture ? path.substring(0, path.length() - "/capture".length()) : path;
+        (capture ? captures : gets).incrementAndGet();
+
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (down) {
+            respond(exchange, 503, "{\"name\":\"SERVICE_UNAVAILABLE\"}");
+            return;
+        }
+
+        String status = orders.get(id);
+        if (status == null) {
+            respond(exchange, 404, "{\"name\":\"RESOURCE_NOT_FOUND\"}");
+        } else if (!capture) {
+            respond(exchange, 200, order(id, status, amounts.get(id)));
+        } else if ("COMPLETED".equals(status)) {
+            respond(exchange, 422, issue("ORDER_ALREADY_CAPTURED"));
+        } else if ("APPROVED".equals(status)) {
+            orders.put(id, "COMPLETED");
+            respond(exchange, 201, order(id, "COMPLETED", amounts.get(id)));
+        } else {
+            respond(exchange, 422, issue("ORDER_NOT_APPROVED"));
+        }
+    }
+
+    private void accept(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        // Leer el cuerpo completo para que la conexión pueda reutilizarse
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+    }
+
+    // Las órdenes completadas llevan su captura, como en la respuesta completa de PayPal
+    private static String order(String id, String status, String amount) {
+        String captures = !"COMPLETED".equals(status) ? "" : ",\"purchase_units\":[{\"payments\":{\"captures\":[{"
+                + "\"id\":\"CAP-" + id + "\",\"status\":\"COMPLETED\","
+                + "\"amount\":{\"currency_code\":\"USD\",\"value\":\"" + amount + "\"}}]}}]";
+        return "{\"id\":\"" + id + "\",\"status\":\"" + status + "\"" + captures + "}";
+    }
+
+    private static String issue(String issue) {
+        return "{\"name\":\"UNPROCESSABLE_ENTITY\",\"details\":[{\"issue\":\"" + issue + "\"}]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
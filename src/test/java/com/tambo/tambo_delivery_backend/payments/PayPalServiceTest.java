@@ -0,0 +1,158 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tambo.tambo_delivery_backend.exceptions.PaymentGatewayUnavailableEx;
+import com.tambo.tambo_delivery_backend.helper.CircuitBreaker;
+import com.tambo.tambo_delivery_backend.services.PayPalService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class PayPalServiceTest {
+
+    private FakePayPalServer paypal;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        paypal = new FakePayPalServer();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        paypal.close();
+    }
+
+    @Test
+    public void testCaptureIsSingleRoundTripOverReusedConnection() throws IOException {
+        PayPalService service = service(10_000, 20, 5, 30_000);
+        int captures = 50;
+        for (int i = 0; i < captures; i++) {
+            paypal.putOrder("PP-" + i, "APPROVED");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < captures; i++) {
+            assertEquals("COMPLETED", service.captureOrder("PP-" + i).status());
+        }
+        long avgMicros = (System.nanoTime() - start) / 1_000 / captures;
+        log.info("Captura contra PayPal local: {} µs de media por pago", avgMicros);
+
+        // Sin GET previo y sobre la misma conexión keep-alive (más la del token)
+        assertEquals(captures, paypal.captures());
+        assertEquals(0, paypal.gets());
+        assertTrue(paypal.connections() <= 2, "Conexiones abiertas: " + paypal.connections());
+    }
+
+    @Test
+    public void testAlreadyCapturedOrderIsReadBack() throws IOException {
+        PayPalService service = service(10_000, 20, 5, 30_000);
+        paypal.putOrder("PP-1", "COMPLETED");
+
+        assertEquals("COMPLETED", service.captureOrder("PP-1").status());
+        assertEquals(1, paypal.captures());
+        assertEquals(1, paypal.gets());
+    }
+
+    @Test
+    public void testNotApprovedOrderIsBusinessErrorAndKeepsCircuitClosed() {
+        PayPalService service = service(10_000, 20, 1, 30_000);
+        paypal.putOrder("PP-1", "CREATED");
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.captureOrder("PP-1"));
+        assertTrue(error.getMessage().contains("ORDER_NOT_APPROVED"));
+        assertEquals(CircuitBreaker.State.CLOSED, service.circuitState());
+    }
+
+    @Test
+    public void testBulkheadRejectsCallsBeyondLimit() throws Exception {
+        PayPalService service = service(10_000, 2, 5, 30_000);
+        int calls = 6;
+        for (int i = 0; i < calls; i++) {
+            paypal.putOrder("PP-" + i, "APPROVED");
+        }
+        // Token ya obtenido para que todas las llamadas compitan solo por el bulkhead
+        paypal.putOrder("WARMUP", "APPROVED");
+        service.captureOrder("WARMUP");
+        paypal.setLatencyMs(500);
+
+        ExecutorService executor = Executors.newFixedThreadPool(calls);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                String id = "PP-" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return service.captureOrder(id);
+                }));
+            }
+            start.countDown();
+
+            int completed = 0;
+            int rejected = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                    completed++;
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof PaymentGatewayUnavailableEx, e.getCause().toString());
+                    rejected++;
+                }
+            }
+            assertEquals(2, completed);
+            assertEquals(4, rejected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCircuitOpensOnTimeoutsFailsFastAndRecovers() throws Exception {
+        PayPalService service = service(150, 20, 3, 300);
+        paypal.putOrder("PP-1", "APPROVED");
+        paypal.setLatencyMs(400);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> service.captureOrder("PP-1"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, service.circuitState());
+
+        // Abierto: se rechaza sin llegar a PayPal
+        int callsBefore = paypal.captures();
+        long start = System.nanoTime();
+        assertThrows(PaymentGatewayUnavailableEx.class, () -> service.captureOrder("PP-1"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 50, "El rechazo tardó " + elapsedMs + " ms");
+        assertEquals(callsBefore, paypal.captures());
+
+        // Pasado open-ms, una llamada de prueba correcta lo cierra
+        paypal.setLatencyMs(0);
+        Thread.sleep(350);
+        paypal.putOrder("PP-2", "APPROVED");
+        assertEquals("COMPLETED", service.captureOrder("PP-2").status());
+        assertEquals(CircuitBreaker.State.CLOSED, service.circuitState());
+    }
+
+    private PayPalService service(int readTimeoutMs, int maxConcurrentCalls, int failureThreshold, long openMs) {
+        // Credenciales distintas por prueba: el SDK comparte la caché de tokens por entorno
+        return new PayPalService("client-" + UUID.randomUUID(), "secret", "sandbox", paypal.baseUrl(),
+                1_000, readTimeoutMs, maxConcurrentCalls, 50, failureThreshold, openMs);
+    }
+}
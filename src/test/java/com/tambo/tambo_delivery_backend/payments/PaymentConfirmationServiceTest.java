@@ -0,0 +1,188 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.paypal.orders.Capture;
+import com.paypal.orders.Money;
+import com.paypal.orders.PaymentCollection;
+import com.paypal.orders.PurchaseUnit;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
+import com.tambo.tambo_delivery_backend.exceptions.ResourceNotFoundEx;
+import com.tambo.tambo_delivery_backend.repositories.PaymentRepository;
+import com.tambo.tambo_delivery_backend.services.OrderService;
+import com.tambo.tambo_delivery_backend.services.PayPalService;
+
+public class PaymentConfirmationServiceTest {
+
+    private static final int REQUESTS = 32;
+    private static final String OWNER = "ana@tambo.test";
+
+    private final UUID orderId = UUID.randomUUID();
+    private final Order order = Order.builder().id(orderId).orderStatus(OrderStatus.PENDING).totalAmount(20.0).build();
+
+    private PayPalService paypalService;
+    private OrderService orderService;
+    private PaymentRepository paymentRepository;
+    private PaymentConfirmationService service;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        paypalService = mock(PayPalService.class);
+        orderService = mock(OrderService.class);
+        when(orderService.getOrderById(orderId)).thenReturn(order);
+        // La transición a PAID se refleja en la orden que devuelve getOrderById
+        doAnswer(invocation -> {
+            order.setOrderStatus(invocation.getArgument(1));
+            return null;
+        }).when(orderService).updateOrderStatus(eq(orderId), any(), anyString());
+
+        when(paypalService.captureOrder(anyString())).thenAnswer(invocation -> {
+            // Llamada remota lenta para que las peticiones se solapen
+            Thread.sleep(200);
+            return completed(invocation.getArgument(0), "20.00");
+        });
+
+        // La orden solo es del dueño; para otro usuario no hay pago que actualizar
+        paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.attachProviderOrderOfUser(eq(orderId), anyString(), eq(PaymentStatus.PENDING),
+                eq(OWNER))).thenReturn(1);
+        when(paymentRepository.existsByOrderIdAndOrderUserEmail(orderId, OWNER)).thenReturn(true);
+
+        service = new PaymentConfirmationService(paypalService, orderService, paymentRepository, 30, "USD");
+        executor = Executors.newFixedThreadPool(REQUESTS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalConfirmationsCaptureOnce() throws Exception {
+        List<PaymentConfirmation> results = confirmConcurrently(i -> "PAYPAL-1");
+
+        assertTrue(results.stream().allMatch(r -> "PAYPAL-1".equals(r.transactionId())));
+        verify(paypalService, times(1)).captureOrder("PAYPAL-1");
+        verify(orderService, times(1)).updateOrderStatus(orderId, OrderStatus.PAID, "PAYPAL-1");
+
+        // Un reintento posterior se responde desde la caché
+        assertEquals("PAYPAL-1", service.confirm(orderId, "PAYPAL-1", OWNER).transactionId());
+        verify(paypalService, times(1)).captureOrder(anyString());
+    }
+
+    @Test
+    public void testDifferentPaypalOrdersForSameOrderTransitionOnce() throws Exception {
+        List<PaymentConfirmation> results = confirmConcurrently(i -> "PAYPAL-" + (i % 2));
+
+        // El candado por orden deja pasar una captura; la otra encuentra la orden ya pagada
+        verify(paypalService, times(1)).captureOrder(anyString());
+        verify(orderService, times(1)).updateOrderStatus(eq(orderId), eq(OrderStatus.PAID), anyString());
+        assertTrue(results.stream().anyMatch(PaymentConfirmation::alreadyPaid));
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        when(paypalService.captureOrder("PAYPAL-1"))
+                .thenThrow(new IOException("Error en PayPal: timeout"))
+                .thenReturn(completed("PAYPAL-1", "20.00"));
+
+        assertThrows(IOException.class, () -> service.confirm(orderId, "PAYPAL-1", OWNER));
+        assertEquals(OrderStatus.PENDING, order.getOrderStatus());
+
+        assertEquals("PAYPAL-1", service.confirm(orderId, "PAYPAL-1", OWNER).transactionId());
+        verify(paypalService, times(2)).captureOrder("PAYPAL-1");
+    }
+
+    @Test
+    public void testFailedStatusChangeIsNotCached() throws Exception {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Stock insuficiente para el producto: Agua");
+        }).doAnswer(invocation -> {
+            order.setOrderStatus(invocation.getArgument(1));
+            return null;
+        }).when(orderService).updateOrderStatus(eq(orderId), any(), anyString());
+
+        // La captura se hizo pero la orden sigue pendiente: el cliente recibe el error
+        assertThrows(IllegalStateException.class, () -> service.confirm(orderId, "PAYPAL-1", OWNER));
+        assertEquals(OrderStatus.PENDING, order.getOrderStatus());
+
+        // El reintento repite la captura (idempotente en PayPal) y la transición
+        assertEquals("PAYPAL-1", service.confirm(orderId, "PAYPAL-1", OWNER).transactionId());
+        assertEquals(OrderStatus.PAID, order.getOrderStatus());
+        verify(paypalService, times(2)).captureOrder("PAYPAL-1");
+        verify(orderService, times(2)).updateOrderStatus(orderId, OrderStatus.PAID, "PAYPAL-1");
+    }
+
+    @Test
+    public void testCaptureBelowTheOrderTotalIsRejected() throws Exception {
+        // El cliente creó en PayPal una orden por menos del total
+        when(paypalService.captureOrder("PAYPAL-1")).thenReturn(completed("PAYPAL-1", "0.01"));
+
+        assertThrows(RuntimeException.class, () -> service.confirm(orderId, "PAYPAL-1", OWNER));
+        assertEquals(OrderStatus.PENDING, order.getOrderStatus());
+        verify(orderService, times(0)).updateOrderStatus(eq(orderId), any(), anyString());
+    }
+
+    @Test
+    public void testOnlyTheOwnerCanConfirm() throws Exception {
+        assertThrows(ResourceNotFoundEx.class, () -> service.confirm(orderId, "PAYPAL-1", "otro@tambo.test"));
+        verify(paypalService, times(0)).captureOrder(anyString());
+
+        // Tampoco recibe la confirmación de una orden ya pagada por su dueño
+        assertEquals("PAYPAL-1", service.confirm(orderId, "PAYPAL-1", OWNER).transactionId());
+        assertThrows(ResourceNotFoundEx.class, () -> service.confirm(orderId, "PAYPAL-1", "otro@tambo.test"));
+    }
+
+    private static com.paypal.orders.Order completed(String paypalOrderId, String amount) {
+        return new com.paypal.orders.Order().id(paypalOrderId).status("COMPLETED")
+                .purchaseUnits(List.of(new PurchaseUnit().payments(new PaymentCollection().captures(List.of(
+                        new Capture().status("COMPLETED").amount(new Money().currencyCode("USD").value(amount)))))));
+    }
+
+    private List<PaymentConfirmation> confirmConcurrently(IntFunction<String> paypalOrderIds)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PaymentConfirmation>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String paypalOrderId = paypalOrderIds.apply(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return service.confirm(orderId, paypalOrderId, OWNER);
+            }));
+        }
+        start.countDown();
+
+        List<PaymentConfirmation> results = new ArrayList<>();
+        for (Future<PaymentConfirmation> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,327 @@
+package com.tambo.tambo_delivery_backend.payments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.DeliveryMethod;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.Payment;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.PaymentStatus;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.orders.OrderEventLog;
+import com.tambo.tambo_delivery_backend.repositories.BrandRepository;
+import com.tambo.tambo_delivery_backend.repositories.CategoryRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
+import com.tambo.tambo_delivery_backend.repositories.PaymentRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+import com.tambo.tambo_delivery_backend.repositories.StockRepository;
+import com.tambo.tambo_delivery_backend.services.OrderService;
+import com.tambo.tambo_delivery_backend.services.PayPalService;
+import com.tambo.tambo_delivery_backend.services.StockReservationService;
+
+// PayPal es el servidor local de FakePayPalServer; lotes de 2 para recorrer varias páginas
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconcile;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "payments.reconcile.batch-size=2",
+        "payments.reconcile.concurrency=3",
+        "payments.reconcile.min-age-minutes=15",
+        "payments.reconcile.expire-after-minutes=180"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ OrderService.class, ProductMapper.class, DiscountPricingIndex.class, StockReservationService.class,
+        StockRepository.class, PaymentReconciler.class, PaymentReconcilerTest.PayPalConfig.class })
+public class PaymentReconcilerTest {
+
+    private static final FakePayPalServer PAYPAL = start();
+
+    @TestConfiguration
+    static class PayPalConfig {
+
+        @Bean
+        PayPalService payPalService() {
+            return new PayPalService("reconcile-client", "secret", "sandbox", PAYPAL.baseUrl(),
+                    1_000, 2_000, 10, 200, 5, 30_000);
+        }
+    }
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserDetailRepository userRepository;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder().email(UUID.randomUUID() + "@tambo.test").build());
+        Brand brand = brandRepository.save(Brand.builder().name("Tambo").build());
+        Category category = categoryRepository.save(Category.builder().name("Bebidas").build());
+        // Stock ya descontado por las órdenes pendientes (2 unidades cada una)
+        product = productRepository.save(Product.builder().slug("agua").name("Agua").description("d")
+                .price(BigDecimal.TEN).stock(50).brand(brand).category(category).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        brandRepository.deleteAll();
+        userRepository.deleteAll();
+        PAYPAL.setDown(false);
+    }
+
+    @AfterAll
+    public static void stopPayPal() {
+        PAYPAL.close();
+    }
+
+    @Test
+    public void testReconcilesPendingPaypalPayments() {
+        PAYPAL.putOrder("PP-COMPLETED", "COMPLETED");
+        PAYPAL.putOrder("PP-APPROVED", "APPROVED");
+        PAYPAL.putOrder("PP-VOIDED", "VOIDED");
+        PAYPAL.putOrder("PP-CREATED-RECENT", "CREATED");
+        PAYPAL.putOrder("PP-CREATED-STALE", "CREATED");
+
+        UUID completed = pendingOrder(PaymentMethod.PAYPAL, "PP-COMPLETED", 30);
+        UUID approved = pendingOrder(PaymentMethod.PAYPAL, "PP-APPROVED", 40);
+        UUID voided = pendingOrder(PaymentMethod.PAYPAL, "PP-VOIDED", 50);
+        UUID createdRecent = pendingOrder(PaymentMethod.PAYPAL, "PP-CREATED-RECENT", 60);
+        UUID createdStale = pendingOrder(PaymentMethod.PAYPAL, "PP-CREATED-STALE", 240);
+        UUID neverRegisteredStale = pendingOrder(PaymentMethod.PAYPAL, null, 300);
+        UUID neverRegisteredRecent = pendingOrder(PaymentMethod.PAYPAL, null, 20);
+        UUID tooRecent = pendingOrder(PaymentMethod.PAYPAL, "PP-APPROVED", 5);
+        UUID cash = pendingOrder(PaymentMethod.EFECTIVO, null, 600);
+
+        PaymentReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(7, result.scanned());
+        assertEquals(2, result.paid());
+        assertEquals(3, result.expired());
+
+        assertPaid(completed, "PP-COMPLETED");
+        assertPaid(approved, "PP-APPROVED");
+        assertEquals("COMPLETED", PAYPAL.orderStatus("PP-APPROVED"));
+        assertExpired(voided);
+        assertExpired(createdStale);
+        assertExpired(neverRegisteredStale);
+        for (UUID untouched : List.of(createdRecent, neverRegisteredRecent, tooRecent, cash)) {
+            assertEquals(OrderStatus.PENDING, orderRepository.findById(untouched).orElseThrow().getOrderStatus());
+        }
+
+        // Las tres órdenes expiradas devolvieron sus 2 unidades
+        assertEquals(56, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    public void testProviderOutageExpiresNothingItCannotVerify() {
+        PAYPAL.putOrder("PP-STALE", "CREATED");
+        UUID stale = pendingOrder(PaymentMethod.PAYPAL, "PP-STALE", 240);
+        PAYPAL.setDown(true);
+
+        PaymentReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(1, result.scanned());
+        assertEquals(0, result.expired());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(stale).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    public void testUnderpaidCaptureIsNotMarkedPaid() {
+        PAYPAL.putOrder("PP-UNDERPAID", "COMPLETED", "0.01");
+        UUID underpaid = pendingOrder(PaymentMethod.PAYPAL, "PP-UNDERPAID", 240);
+
+        PaymentReconciler.Result result = reconciler.reconcile();
+
+        // Ni PAID ni FAILED: el dinero se cobró y queda para revisión manual
+        assertEquals(0, result.paid());
+        assertEquals(0, result.expired());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(underpaid).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    public void testFailingOrderDoesNotRollBackTheRestOfTheBatch() {
+        PAYPAL.putOrder("PP-NO-STOCK", "COMPLETED");
+        PAYPAL.putOrder("PP-OK", "COMPLETED");
+        // Sin reserva previa y sin stock: reservar al pagar falla solo para esta orden
+        product.setStock(1);
+        productRepository.save(product);
+        UUID noStock = pendingOrder(PaymentMethod.PAYPAL, "PP-NO-STOCK", 40, false);
+        UUID ok = pendingOrder(PaymentMethod.PAYPAL, "PP-OK", 30);
+
+        PaymentReconciler.Result result = reconciler.reconcile();
+
+        assertEquals(1, result.paid());
+        assertPaid(ok, "PP-OK");
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(noStock).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    public void testOnlyTheOwnerRegistersThePaypalOrder() {
+        UUID orderId = pendingOrder(PaymentMethod.PAYPAL, null, 5);
+
+        assertEquals(0, paymentRepository.attachProviderOrderOfUser(orderId, "PP-AJENA", PaymentStatus.PENDING,
+                "otro@tambo.test"));
+        assertEquals(1, paymentRepository.attachProviderOrderOfUser(orderId, "PP-PROPIA", PaymentStatus.PENDING,
+                user.getEmail()));
+        assertEquals("PP-PROPIA", orderRepository.findWithPaymentAndItemsByIdIn(List.of(orderId)).get(0)
+                .getPayment().getProviderOrderId());
+    }
+
+    @Test
+    public void testConcurrentConfirmationAndReconciliationPayOnce() throws Exception {
+        UUID orderId = pendingOrder(PaymentMethod.PAYPAL, "PP-DOBLE", 30);
+
+        // El cliente confirma y la conciliación aplica el mismo pago a la vez
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            boolean client = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                if (client) {
+                    orderService.updateOrderStatus(orderId, OrderStatus.PAID, "PP-DOBLE");
+                } else {
+                    orderService.applyStatusTransitions(OrderStatus.PENDING,
+                            List.of(new OrderService.StatusTransition(orderId, OrderStatus.PAID, "PP-DOBLE")));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertPaid(orderId, "PP-DOBLE");
+        verify(orderEventLog, times(1)).append(any(), eq(OrderStatus.PENDING));
+    }
+
+    private UUID pendingOrder(PaymentMethod method, String providerOrderId, int minutesAgo) {
+        return pendingOrder(method, providerOrderId, minutesAgo, true);
+    }
+
+    private UUID pendingOrder(PaymentMethod method, String providerOrderId, int minutesAgo, boolean stockReserved) {
+        Date createdAt = new Date(System.currentTimeMillis() - minutesAgo * 60_000L);
+        Order order = Order.builder()
+                .orderDate(createdAt)
+                .user(user)
+                .deliveryMethod(DeliveryMethod.DELIVERY)
+                .totalAmount(20.0)
+                .orderStatus(OrderStatus.PENDING)
+                .paymentMethod(method)
+                .receiptType(ReceiptType.BOLETA)
+                .docType("DNI")
+                .docNumber(12345678L)
+                .stockReserved(stockReserved)
+                .build();
+        order.setOrderItemList(List.of(
+                OrderItem.builder().order(order).product(product).quantity(2).itemPrice(10.0).build()));
+        order.setPayment(Payment.builder()
+                .order(order)
+                .paymentDate(createdAt)
+                .amount(20.0)
+                .paymentMethod(method)
+                .paymentStatus(PaymentStatus.PENDING)
+                .providerOrderId(providerOrderId)
+                .build());
+        return orderRepository.save(order).getId();
+    }
+
+    private void assertPaid(UUID orderId, String transactionId) {
+        Order order = orderRepository.findWithPaymentAndItemsByIdIn(List.of(orderId)).get(0);
+        assertEquals(OrderStatus.PAID, order.getOrderStatus());
+        assertEquals(PaymentStatus.COMPLETED, order.getPayment().getPaymentStatus());
+        assertEquals(transactionId, order.getPayment().getTransactionId());
+        assertTrue(order.isStockReserved());
+    }
+
+    private void assertExpired(UUID orderId) {
+        Order order = orderRepository.findWithPaymentAndItemsByIdIn(List.of(orderId)).get(0);
+        assertEquals(OrderStatus.FAILED, order.getOrderStatus());
+        assertEquals(PaymentStatus.FAILED, order.getPayment().getPaymentStatus());
+        assertFalse(order.isStockReserved());
+    }
+
+    private static FakePayPalServer start() {
+        try {
+            return new FakePayPalServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Servidor SMTP mínimo en memoria para las pruebas: acepta (o rechaza) los mensajes y los guarda
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket socket;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private volatile boolean rejecting;
+
+    FakeSmtpServer() throws IOException {
+        socket = new ServerSocket(0);
+        Thread.ofPlatform().daemon().name("fake-smtp").start(this::acceptLoop);
+    }
+
+    int port() {
+        return socket.getLocalPort();
+    }
+
+    List<String> messages() {
+        return messages;
+    }
+
+    // Con true responde 554 a DATA, como un servidor que rechaza temporalmente el envío
+    void setRejecting(boolean rejecting) {
+        this.rejecting = rejecting;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try (Socket client = socket.accept()) {
+                session(client);
+            } catch (IOException e) {
+                // Conexión cerrada por el cliente o servidor detenido
+            }
+        }
+    }
+
+    private void session(Socket client) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+        reply(out, "220 localhost");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("DATA")) {
+                if (rejecting) {
+                    reply(out, "554 Transaction failed");
+                    continue;
+                }
+                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                StringBuilder message = new StringBuilder();
+                while ((line = in.readLine()) != null && !line.equals(".")) {
+                    message.append(line).append('\n');
+                }
+                messages.add(message.toString());
+                reply(out, "250 OK");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 Bye");
+                return;
+            } else {
+                reply(out, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,243 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.TemplateEngine;
+
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.auth.repositories.UserDetailRepository;
+import com.tambo.tambo_delivery_backend.auth.services.EmailService;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.DeliveryMethod;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutbox;
+import com.tambo.tambo_delivery_backend.entities.ReceiptOutboxStatus;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.repositories.BrandRepository;
+import com.tambo.tambo_delivery_backend.repositories.CategoryRepository;
+import com.tambo.tambo_delivery_backend.repositories.OrderRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+import com.tambo.tambo_delivery_backend.repositories.ReceiptOutboxRepository;
+import com.tambo.tambo_delivery_backend.services.BoletaPdfService;
+import com.tambo.tambo_delivery_backend.services.FacturaPdfService;
+
+// El comprobante se encola en la transacción del pago y se envía después del commit contra un
+// servidor SMTP local
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:receipts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.mail.username=tienda@tambo.test",
+        "backend.base-url=http://localhost:8080",
+        "frontend.base-url=http://localhost:4200",
+        "receipts.store-dir=target/test-receipts"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ReceiptOutboxService.class, ReceiptDispatcher.class, ReceiptDocuments.class, ReceiptStore.class,
+        BoletaPdfService.class, FacturaPdfService.class,
+        EmailService.class, ReceiptDispatcherTest.MailConfig.class })
+public class ReceiptDispatcherTest {
+
+    private static final FakeSmtpServer SMTP = startSmtp();
+
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(SMTP.port());
+            return sender;
+        }
+
+        @Bean
+        TemplateEngine templateEngine() {
+            return new TemplateEngine();
+        }
+    }
+
+    @Autowired
+    private ReceiptOutboxService receiptOutboxService;
+
+    @Autowired
+    private ReceiptDispatcher dispatcher;
+
+    @Autowired
+    private ReceiptOutboxRepository outboxRepository;
+
+    @Autowired
+    private ReceiptStore receiptStore;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserDetailRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Order order;
+
+    @BeforeEach
+    public void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        SMTP.messages().clear();
+        SMTP.setRejecting(false);
+
+        Brand brand = brandRepository.save(Brand.builder().name("Tambo").build());
+        Category category = categoryRepository.save(Category.builder().name("Bebidas").build());
+        Product product = productRepository.save(Product.builder()
+                .slug("agua").name("Agua").description("Agua").price(BigDecimal.TEN).stock(10)
+                .brand(brand).category(category).build());
+        User user = userRepository.save(User.builder().email("cliente@tambo.test").firstName("Ana").build());
+
+        order = Order.builder()
+                .user(user)
+                .deliveryMethod(DeliveryMethod.STORE)
+                .totalAmount(20.0)
+                .orderStatus(OrderStatus.PAID)
+                .paymentMethod(PaymentMethod.PAYPAL)
+                .receiptType(ReceiptType.BOLETA)
+                .docType("DNI")
+                .docNumber(12345678L)
+                .build();
+        order.setOrderItemList(new ArrayList<>(List.of(OrderItem.builder()
+                .order(order).product(product).productName("Agua").quantity(2).itemPrice(10.0).build())));
+        order = orderRepository.save(order);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        outboxRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        brandRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    public static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    public void testReceiptIsMailedAfterCommit() throws Exception {
+        enqueueTwice();
+
+        ReceiptOutbox sent = awaitOutbox(o -> o.getStatus() == ReceiptOutboxStatus.SENT);
+        assertEquals(1, sent.getAttempts());
+        assertNotNull(sent.getSentAt());
+        assertEquals(1, SMTP.messages().size());
+        assertTrue(SMTP.messages().get(0).contains("Boleta_Tambo.pdf"));
+        assertEquals(1, receiptOutboxService.getStats().getSent());
+        // El PDF enviado queda guardado para las descargas
+        assertTrue(receiptStore.find(order.getId(), ReceiptType.BOLETA).isPresent());
+    }
+
+    @Test
+    public void testRejectedDeliveryIsRetriedWithBackoff() throws Exception {
+        SMTP.setRejecting(true);
+        enqueueTwice();
+
+        ReceiptOutbox failed = awaitOutbox(o -> o.getLastError() != null);
+        assertEquals(ReceiptOutboxStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getNextAttemptAt().isAfter(Instant.now().plusSeconds(20)));
+        assertEquals(1, receiptOutboxService.getStats().getPending());
+
+        // Todavía no le toca: nadie puede reservarlo
+        assertFalse(dispatcher.process(failed.getId()));
+
+        SMTP.setRejecting(false);
+        failed.setNextAttemptAt(Instant.now());
+        outboxRepository.save(failed);
+        assertTrue(dispatcher.process(failed.getId()));
+
+        ReceiptOutbox sent = outboxRepository.findById(failed.getId()).orElseThrow();
+        assertEquals(ReceiptOutboxStatus.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+        assertEquals(1, SMTP.messages().size());
+    }
+
+    @Test
+    public void testBackoffGrowsAndIsCapped() {
+        assertTrue(ReceiptDispatcher.backoff(1).compareTo(Duration.ofSeconds(24)) >= 0);
+        assertTrue(ReceiptDispatcher.backoff(1).compareTo(Duration.ofSeconds(36)) <= 0);
+        assertTrue(ReceiptDispatcher.backoff(3).compareTo(Duration.ofSeconds(96)) >= 0);
+        assertTrue(ReceiptDispatcher.backoff(30).compareTo(Duration.ofMinutes(72)) <= 0);
+    }
+
+    // Encolar dos veces la misma orden (p. ej. confirmación repetida) deja un solo comprobante
+    private void enqueueTwice() {
+        transaction.executeWithoutResult(status -> receiptOutboxService.enqueue(order));
+        transaction.executeWithoutResult(status -> receiptOutboxService.enqueue(order));
+        assertEquals(1, outboxRepository.count());
+    }
+
+    private ReceiptOutbox awaitOutbox(Predicate<ReceiptOutbox> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ReceiptOutbox outbox = outboxRepository.findAll().get(0);
+            if (condition.test(outbox)) {
+                return outbox;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("El comprobante no llegó al estado esperado");
+    }
+
+    private static FakeSmtpServer startSmtp() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
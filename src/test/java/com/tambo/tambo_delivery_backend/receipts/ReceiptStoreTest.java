@@ -0,0 +1,129 @@
+package com.tambo.tambo_delivery_backend.receipts;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+
+public class ReceiptStoreTest {
+
+    private static final byte[] PDF = "%PDF-1.4 boleta de prueba con algo de contenido".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private ReceiptStore store;
+    private UUID orderId;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new ReceiptStore(dir.toString());
+        orderId = UUID.randomUUID();
+    }
+
+    @Test
+    public void testStoreIsContentAddressedAndReplacesOldVersions() throws IOException {
+        StoredReceipt first = store.store(orderId, ReceiptType.BOLETA, PDF);
+        assertTrue(first.path().getFileName().toString().startsWith("boleta-" + first.hash()));
+        assertEquals(PDF.length, first.size());
+
+        byte[] regenerated = "%PDF-1.4 otra versión".getBytes(StandardCharsets.UTF_8);
+        StoredReceipt second = store.store(orderId, ReceiptType.BOLETA, regenerated);
+        assertFalse(Files.exists(first.path()));
+        assertArrayEquals(regenerated, store.read(second));
+
+        // Otra instancia (o un reinicio) encuentra el fichero sin el índice en memoria
+        StoredReceipt found = new ReceiptStore(dir.toString()).find(orderId, ReceiptType.BOLETA).orElseThrow();
+        assertEquals(second.hash(), found.hash());
+        assertTrue(new ReceiptStore(dir.toString()).find(orderId, ReceiptType.FACTURA).isEmpty());
+    }
+
+    @Test
+    public void testFullDownloadAndConditionalRequest() throws IOException {
+        StoredReceipt receipt = store.store(orderId, ReceiptType.BOLETA, PDF);
+
+        MockHttpServletResponse full = send(new MockHttpServletRequest("GET", "/"), receipt);
+        assertEquals(200, full.getStatus());
+        assertArrayEquals(PDF, full.getContentAsByteArray());
+        assertEquals(receipt.etag(), full.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", full.getHeader(HttpHeaders.ACCEPT_RANGES));
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/");
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, receipt.etag());
+        MockHttpServletResponse notModified = send(revalidate, receipt);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testRangeRequests() throws IOException {
+        StoredReceipt receipt = store.store(orderId, ReceiptType.BOLETA, PDF);
+
+        MockHttpServletResponse partial = send(range("bytes=5-9", null), receipt);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 5-9/" + PDF.length, partial.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(PDF, 5, 10), partial.getContentAsByteArray());
+
+        MockHttpServletResponse suffix = send(range("bytes=-4", null), receipt);
+        assertArrayEquals(Arrays.copyOfRange(PDF, PDF.length - 4, PDF.length), suffix.getContentAsByteArray());
+
+        MockHttpServletResponse unsatisfiable = send(range("bytes=" + PDF.length + "-", null), receipt);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */" + PDF.length, unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        // If-Range con otra versión: se envía el fichero completo
+        MockHttpServletResponse changed = send(range("bytes=5-9", "\"otro\""), receipt);
+        assertEquals(200, changed.getStatus());
+        assertNull(changed.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(PDF, changed.getContentAsByteArray());
+    }
+
+    @Test
+    public void testTomcatSendfileIsUsedWhenAvailable() throws IOException {
+        StoredReceipt receipt = store.store(orderId, ReceiptType.FACTURA, PDF);
+        MockHttpServletRequest request = range("bytes=10-", null);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = send(request, receipt);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(receipt.path().toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) PDF.length, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(PDF.length - 10, response.getContentLengthLong());
+    }
+
+    private static MockHttpServletRequest range(String range, String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, range);
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse send(MockHttpServletRequest request, StoredReceipt receipt)
+            throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ReceiptFileSender.send(request, response, receipt, "boleta_tambo.pdf");
+        return response;
+    }
+}
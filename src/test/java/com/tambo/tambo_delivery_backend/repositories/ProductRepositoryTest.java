@@ -0,0 +1,149 @@
+package com.tambo.tambo_delivery_backend.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.tambo.tambo_delivery_backend.dto.response.ProductDTO;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.CategoryType;
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.entities.ProductSection;
+import com.tambo.tambo_delivery_backend.entities.Resources;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.specification.ProductSpecification;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tambo;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProductRepositoryTest {
+
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSectionRepository productSectionRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        Brand brand = entityManager.persist(Brand.builder().name("Tambo").build());
+
+        Category category = entityManager.persist(Category.builder().name("Bebidas").build());
+        for (String typeName : List.of("Gaseosas", "Aguas")) {
+            CategoryType type = CategoryType.builder().name(typeName).category(category).build();
+            category.getCategoryTypes().add(entityManager.persist(type));
+        }
+        CategoryType type = category.getCategoryTypes().get(0);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = Product.builder()
+                    .slug("producto-" + i)
+                    .name("Producto " + i)
+                    .description("Descripción " + i)
+                    .price(BigDecimal.valueOf(10 + i))
+                    .stock(100)
+                    .brand(brand)
+                    .category(category)
+                    .categoryType(type)
+                    .isNewArrival(i % 2 == 0)
+                    .build();
+            product.setResources(new ArrayList<>(List.of(
+                    Resources.builder().name("img").url("https://cdn/" + i + ".png").isPrimary(true)
+                            .type("image").product(product).build(),
+                    Resources.builder().name("img2").url("https://cdn/" + i + "-2.png").isPrimary(false)
+                            .type("image").product(product).build())));
+            products.add(entityManager.persist(product));
+        }
+
+        entityManager.persist(Discount.builder()
+                .name("Verano")
+                .percentage(BigDecimal.TEN)
+                .startDate(LocalDate.now().minusDays(1))
+                .endDate(LocalDate.now().plusDays(1))
+                .isActive(true)
+                .products(products)
+                .build());
+
+        Category empty = entityManager.persist(Category.builder().name("Sin productos").build());
+        entityManager.persist(ProductSection.builder().category(category).maxProducts(5).position(1).build());
+        entityManager.persist(ProductSection.builder().category(empty).maxProducts(5).position(2).build());
+        entityManager.persist(ProductSection.builder().category(category).maxProducts(0).position(3).build());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testListingLoadsWholeGraphInBoundedQueries() {
+        List<ProductDTO> dtos = productRepository.findAll(ProductSpecification.isActive()).stream()
+                .map(product -> ProductMapper.toDTO(product, BigDecimal.ZERO))
+                .toList();
+
+        assertEquals(PRODUCTS, dtos.size());
+        assertTrue(dtos.stream().allMatch(d -> d.getResources().size() == 2 && d.getDiscounts().size() == 1));
+
+        // productos (+ marca, categoría, tipo) + recursos + descuentos + tipos de la categoría
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 4, "Se esperaban como máximo 4 sentencias SQL, se ejecutaron " + statements);
+    }
+
+    @Test
+    public void testKeysetPageLoadsWholeGraphInBoundedQueries() {
+        List<Product> page = productRepository.findBy(ProductSpecification.isActive(),
+                q -> q.project(ProductRepository.LISTING_GRAPH).limit(10).all());
+        page.forEach(product -> ProductMapper.toDTO(product, BigDecimal.ZERO));
+
+        assertEquals(10, page.size());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 4, "Se esperaban como máximo 4 sentencias SQL, se ejecutaron " + statements);
+    }
+
+    @Test
+    public void testTopProductsPerSectionInSingleQuery() {
+        List<Object[]> rows = productSectionRepository.findSectionsWithTopProductIds();
+
+        // 5 productos de la primera sección + 1 fila sin producto para la sección vacía
+        // y otra para la sección con maxProducts = 0
+        assertEquals(7, rows.size());
+        assertEquals(5, rows.subList(0, 5).stream().map(row -> (UUID) row[4]).distinct().count());
+        assertEquals(null, rows.get(5)[4]);
+        assertEquals(0, rows.get(6)[2]);
+        assertEquals(null, rows.get(6)[4]);
+
+        // Una sola sentencia para todas las secciones
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
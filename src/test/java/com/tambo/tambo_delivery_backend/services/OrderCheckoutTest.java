@@ -0,0 +1,131 @@
+package com.tambo.tambo_delivery_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.tambo.tambo_delivery_backend.auth.dto.response.OrderResponse;
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
+import com.tambo.tambo_delivery_backend.dto.request.OrderItemRequest;
+import com.tambo.tambo_delivery_backend.dto.request.OrderRequest;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.DeliveryMethod;
+import com.tambo.tambo_delivery_backend.entities.Discount;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.exceptions.InvalidOrderEx;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.orders.OrderEventLog;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkout;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ OrderService.class, ProductMapper.class, DiscountPricingIndex.class })
+public class OrderCheckoutTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private StockReservationService stockReservationService;
+
+    @MockitoBean
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DiscountPricingIndex discountPricing;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Product agua;
+    private Principal principal;
+
+    @BeforeEach
+    public void setUp() {
+        Brand brand = entityManager.persist(Brand.builder().name("Tambo").build());
+        Category category = entityManager.persist(Category.builder().name("Bebidas").build());
+        agua = entityManager.persist(Product.builder()
+                .slug("agua").name("Agua").description("Agua").price(BigDecimal.TEN).stock(10)
+                .brand(brand).category(category).build());
+
+        // Dos descuentos vigentes a la vez: el catálogo muestra el mayor (S/ 8.00)
+        entityManager.persist(discount("Agua", "10"));
+        entityManager.persist(discount("Verano", "20"));
+        User user = entityManager.persist(User.builder().email("ana@tambo.test").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        discountPricing.reload();
+        when(userDetailsService.loadUserByUsername("ana@tambo.test")).thenReturn(user);
+        principal = () -> "ana@tambo.test";
+    }
+
+    @Test
+    public void testAcceptsThePriceShownByTheCatalogWithOverlappingDiscounts() throws Exception {
+        OrderResponse response = orderService.createOrder(order(8.00), principal);
+
+        assertNotNull(response.getOrderId());
+    }
+
+    @Test
+    public void testRejectsPricesBelowTheBestDiscount() {
+        InvalidOrderEx error = assertThrows(InvalidOrderEx.class,
+                () -> orderService.createOrder(order(7.50), principal));
+
+        assertEquals("Precio inválido para el producto: Agua", error.getMessage());
+    }
+
+    private Discount discount(String name, String percentage) {
+        return Discount.builder()
+                .name(name)
+                .percentage(new BigDecimal(percentage))
+                .startDate(TODAY.minusDays(1))
+                .endDate(TODAY.plusDays(1))
+                .isActive(true)
+                .products(new ArrayList<>(List.of(agua)))
+                .build();
+    }
+
+    private OrderRequest order(double itemPrice) {
+        return OrderRequest.builder()
+                .orderItemRequests(List.of(OrderItemRequest.builder()
+                        .productId(agua.getId()).quantity(1).itemPrice(itemPrice).build()))
+                .deliveryMethod(DeliveryMethod.STORE)
+                .totalAmount(itemPrice)
+                .paymentMethod(PaymentMethod.YAPE)
+                .receiptType(ReceiptType.BOLETA)
+                .docType("DNI")
+                .docNumber(12345678L)
+                .build();
+    }
+}
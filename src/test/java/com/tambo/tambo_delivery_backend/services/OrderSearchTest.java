@@ -0,0 +1,189 @@
+package com.tambo.tambo_delivery_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.tambo.tambo_delivery_backend.auth.entities.User;
+import com.tambo.tambo_delivery_backend.catalog.DiscountPricingIndex;
+import com.tambo.tambo_delivery_backend.dto.response.OrderDetails;
+import com.tambo.tambo_delivery_backend.dto.response.OrderItemDetail;
+import com.tambo.tambo_delivery_backend.dto.response.OrderPageDTO;
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.DeliveryMethod;
+import com.tambo.tambo_delivery_backend.entities.Order;
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+import com.tambo.tambo_delivery_backend.entities.OrderStatus;
+import com.tambo.tambo_delivery_backend.entities.PaymentMethod;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.entities.ReceiptType;
+import com.tambo.tambo_delivery_backend.entities.Resources;
+import com.tambo.tambo_delivery_backend.mapper.ProductMapper;
+import com.tambo.tambo_delivery_backend.orders.OrderEventLog;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orders;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ OrderService.class, ProductMapper.class, DiscountPricingIndex.class })
+public class OrderSearchTest {
+
+    private static final int ORDERS = 25;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private StockReservationService stockReservationService;
+
+    @MockitoBean
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User ana;
+    private Date start;
+
+    @BeforeEach
+    public void setUp() {
+        Brand brand = entityManager.persist(Brand.builder().name("Tambo").build());
+        Category category = entityManager.persist(Category.builder().name("Bebidas").build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            products.add(entityManager.persist(Product.builder()
+                    .slug("p" + i).name("Producto " + i).description("d").price(BigDecimal.TEN).stock(10)
+                    .brand(brand).category(category).build()));
+        }
+        entityManager.persist(Resources.builder().name("img").url("https://cdn/p0.png").isPrimary(true)
+                .type("image").product(products.get(0)).build());
+        ana = entityManager.persist(User.builder().email("ana@tambo.test").build());
+        User luis = entityManager.persist(User.builder().email("luis@tambo.test").build());
+
+        // Varias órdenes comparten fecha para ejercitar el desempate por id. Las líneas no llevan la
+        // copia del producto, como las creadas antes de existir esas columnas
+        start = new Date(1_700_000_000_000L);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .orderDate(new Date(start.getTime() + (i / 2) * 60_000L))
+                    .user(i % 2 == 0 ? ana : luis)
+                    .deliveryMethod(DeliveryMethod.DELIVERY)
+                    .totalAmount(20.0)
+                    .orderStatus(i % 5 == 0 ? OrderStatus.CANCELLED : OrderStatus.PAID)
+                    .paymentMethod(i % 3 == 0 ? PaymentMethod.YAPE : PaymentMethod.PAYPAL)
+                    .receiptType(ReceiptType.BOLETA)
+                    .docType("DNI")
+                    .docNumber(12345678L)
+                    .build();
+            order.setOrderItemList(List.of(
+                    OrderItem.builder().order(order).product(products.get(i % 3)).quantity(1).itemPrice(10.0).build(),
+                    OrderItem.builder().order(order).product(products.get((i + 1) % 3)).quantity(1).itemPrice(10.0)
+                            .build()));
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testCursorWalksEveryOrderOnceNewestFirst() {
+        List<OrderDetails> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderPageDTO page = orderService.searchOrders(null, null, null, null, null, null, cursor, 10);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(ORDERS, all.size());
+        Set<UUID> ids = new HashSet<>();
+        all.forEach(order -> ids.add(order.getId()));
+        assertEquals(ORDERS, ids.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).getOrderDate().after(all.get(i - 1).getOrderDate()));
+        }
+        assertTrue(all.stream().allMatch(order -> order.getOrderItemList().size() == 2
+                && order.getUser() != null));
+
+        // Por página: órdenes con su usuario + líneas con su producto
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= pages * 2, "Se esperaban como máximo 2 sentencias por página, se ejecutaron "
+                + statements);
+    }
+
+    @Test
+    public void testLegacyLinesAreBackfilledAndReadWithoutProducts() {
+        orderService.backfillOrderItemSnapshots();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderPageDTO page = orderService.searchOrders(null, null, null, null, null, null, null, 100);
+
+        List<OrderItemDetail> lines = page.getItems().stream()
+                .flatMap(order -> order.getOrderItemList().stream())
+                .toList();
+        assertEquals(ORDERS * 2, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.getProductName().startsWith("Producto ")));
+        assertTrue(lines.stream().allMatch(line -> line.getProductName().equals("Producto 0")
+                ? "https://cdn/p0.png".equals(line.getProductThumbnail())
+                : line.getProductThumbnail() == null));
+
+        // Órdenes + líneas; ningún producto se carga
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(Product.class.getName()).getLoadCount());
+    }
+
+    @Test
+    public void testFiltersCombine() {
+        OrderPageDTO page = orderService.searchOrders(OrderStatus.PAID, null, null, ana.getId(), null, null, null, 50);
+
+        // Órdenes pares (de Ana) que no son múltiplo de 5: 0..24 pares = 13, menos 0, 10, 20
+        assertEquals(10, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getItems().stream().allMatch(order -> order.getOrderStatus() == OrderStatus.PAID
+                && order.getUser().getEmail().equals("ana@tambo.test")));
+
+        Date from = new Date(start.getTime() + 5 * 60_000L);
+        Date to = new Date(start.getTime() + 7 * 60_000L);
+        page = orderService.searchOrders(null, from, to, null, PaymentMethod.YAPE, ReceiptType.BOLETA, null, 50);
+        // Minutos 5 y 6 -> órdenes 10..13; de ellas son YAPE 12
+        assertEquals(1, page.getItems().size());
+    }
+}
@@ -0,0 +1,184 @@
+package com.tambo.tambo_delivery_backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tambo.tambo_delivery_backend.entities.Brand;
+import com.tambo.tambo_delivery_backend.entities.Category;
+import com.tambo.tambo_delivery_backend.entities.OrderItem;
+import com.tambo.tambo_delivery_backend.entities.Product;
+import com.tambo.tambo_delivery_backend.exceptions.InsufficientStockEx;
+import com.tambo.tambo_delivery_backend.repositories.BrandRepository;
+import com.tambo.tambo_delivery_backend.repositories.CategoryRepository;
+import com.tambo.tambo_delivery_backend.repositories.ProductRepository;
+import com.tambo.tambo_delivery_backend.repositories.StockRepository;
+
+// Cada reserva confirma su propia transacción, como en producción (sin el rollback de @DataJpaTest)
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ StockReservationService.class, StockRepository.class })
+public class StockReservationServiceTest {
+
+    private static final int CHECKOUTS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product popular;
+    private Product scarce;
+    private Product hidden;
+
+    @BeforeEach
+    public void setUp() {
+        Brand brand = brandRepository.save(Brand.builder().name("Tambo").build());
+        Category category = categoryRepository.save(Category.builder().name("Bebidas").build());
+        popular = productRepository.save(product("popular", 500, brand, category));
+        scarce = productRepository.save(product("escaso", 300, brand, category));
+        Product inactive = product("oculto", 5, brand, category);
+        inactive.setActive(false);
+        hidden = productRepository.save(inactive);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        brandRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        // Cada cesta lleva una unidad de cada producto: solo 300 cestas pueden completarse
+        Map<UUID, Integer> basket = Map.of(popular.getId(), 1, scarce.getId(), 1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    stockReservationService.reserve(basket);
+                    reserved.incrementAndGet();
+                } catch (InsufficientStockEx e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(300, reserved.get());
+        assertEquals(CHECKOUTS - 300, rejected.get());
+
+        // Las cestas rechazadas devolvieron lo que habían reservado del otro producto
+        Product popularAfter = productRepository.findById(popular.getId()).orElseThrow();
+        Product scarceAfter = productRepository.findById(scarce.getId()).orElseThrow();
+        assertEquals(200, popularAfter.getStock());
+        assertEquals(0, scarceAfter.getStock());
+        assertTrue(popularAfter.isActive());
+        assertFalse(scarceAfter.isActive());
+    }
+
+    @Test
+    public void testCancellingTheReservationMakesTheProductVisibleAgain() {
+        // Un pedido se lleva todo el stock y luego se cancela (o caduca sin pagar)
+        List<OrderItem> items = List.of(item(scarce, 300), item(hidden, 5));
+        stockReservationService.reserve(items);
+        assertFalse(productRepository.findById(scarce.getId()).orElseThrow().isActive());
+
+        stockReservationService.release(items);
+
+        Product scarceAfter = productRepository.findById(scarce.getId()).orElseThrow();
+        assertEquals(300, scarceAfter.getStock());
+        assertTrue(scarceAfter.isActive());
+        // El que desactivó el administrador no se reactiva
+        Product hiddenAfter = productRepository.findById(hidden.getId()).orElseThrow();
+        assertEquals(5, hiddenAfter.getStock());
+        assertFalse(hiddenAfter.isActive());
+    }
+
+    @Test
+    public void testCallerCanCatchInsufficientStockAndCommit() {
+        // La transacción de quien llama reserva, captura el rechazo de otra cesta y confirma
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockReservationService.reserve(Map.of(popular.getId(), 2));
+            assertThrows(InsufficientStockEx.class,
+                    () -> stockReservationService.reserve(Map.of(popular.getId(), 1, scarce.getId(), 301)));
+        });
+
+        // Se conserva la primera reserva y de la rechazada no queda nada
+        Product popularAfter = productRepository.findById(popular.getId()).orElseThrow();
+        Product scarceAfter = productRepository.findById(scarce.getId()).orElseThrow();
+        assertEquals(498, popularAfter.getStock());
+        assertEquals(300, scarceAfter.getStock());
+        assertTrue(scarceAfter.isActive());
+    }
+
+    private static OrderItem item(Product product, int quantity) {
+        return OrderItem.builder().product(product).quantity(quantity).build();
+    }
+
+    private static Product product(String slug, int stock, Brand brand, Category category) {
+        return Product.builder()
+                .slug(slug)
+                .name(slug)
+                .description(slug)
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .brand(brand)
+                .category(category)
+                .build();
+    }
+}